@@ -0,0 +1,23 @@
+#!/usr/bin/env bash
+# Compares two JMH JSON result files (e.g. two commits from ./run.sh).
+# Prints score before/after and the relative change for each benchmark + params.
+#
+# Usage: ./compare.sh results/<before>.json results/<after>.json
+set -euo pipefail
+
+if [ $# -ne 2 ]; then
+    echo "Usage: $0 <avant.json> <après.json>" >&2
+    exit 1
+fi
+
+key='.benchmark + (if .params then " " + (.params | to_entries | map("\(.key)=\(.value)") | join(",")) else "" end)'
+
+jq -r -n --slurpfile before "$1" --slurpfile after "$2" "
+  (\$before[0] | map({key: ($key), value: .primaryMetric}) | from_entries) as \$b
+  | \$after[0][]
+  | ($key) as \$k
+  | select(\$b[\$k])
+  | [\$k, \$b[\$k].score, .primaryMetric.score, .primaryMetric.scoreUnit,
+     ((.primaryMetric.score - \$b[\$k].score) / \$b[\$k].score * 100)]
+  | \"\(.[0] | sub(\"^com.fab1.backend.benchmarks.\"; \"\"))\t\(.[1] * 1000 | round / 1000)\t\(.[2] * 1000 | round / 1000)\t\(.[3])\t\(.[4] * 10 | round / 10)%\"
+"
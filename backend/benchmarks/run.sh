@@ -0,0 +1,17 @@
+#!/usr/bin/env bash
+# Runs the JMH benchmarks and stores machine-readable results per commit:
+#   results/<short-sha>.json   (JMH JSON, one entry per benchmark + params)
+#
+# Usage: ./run.sh [JMH args...]       e.g. ./run.sh JwtService -p tokenCache=false
+# Build first, from backend/: mvn -B -Pbenchmarks -DskipTests package
+set -euo pipefail
+cd "$(dirname "$0")"
+
+sha=$(git rev-parse --short HEAD)
+if ! git diff --quiet HEAD -- ../src; then
+    sha="${sha}-dirty"
+fi
+
+mkdir -p results
+java -jar ../target/benchmarks.jar -rf json -rff "results/${sha}.json" "$@"
+echo "Résultats: results/${sha}.json"
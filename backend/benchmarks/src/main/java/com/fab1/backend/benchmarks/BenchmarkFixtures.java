@@ -0,0 +1,59 @@
+package com.fab1.backend.benchmarks;
+
+import com.fab1.backend.model.Role;
+import com.fab1.backend.model.SigningKey;
+import com.fab1.backend.model.User;
+import com.fab1.backend.service.JwtService;
+import com.fab1.backend.service.SigningKeyRing;
+import com.fab1.backend.service.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Objects shared by the benchmarks, built the way the application builds them
+ * but without a Spring context or a database
+ */
+final class BenchmarkFixtures {
+
+    static final long TOKEN_TTL_MS = 3_600_000L;
+
+    private BenchmarkFixtures() {
+    }
+
+    static SigningKeyRing keyRing() {
+        SigningKeyRing keyRing = new SigningKeyRing();
+        keyRing.replace(List.of(SigningKey.generate(0)));
+        return keyRing;
+    }
+
+    static JwtService jwtService(SigningKeyRing keyRing, boolean cacheEnabled) {
+        VerifiedTokenCache cache = cacheEnabled
+                ? new VerifiedTokenCache(true, 10_000, new SimpleMeterRegistry())
+                : VerifiedTokenCache.disabled();
+        return new JwtService(TOKEN_TTL_MS, keyRing, cache);
+    }
+
+    private static final List<String> ROLE_NAMES = List.of("USER", "MODERATOR", "ADMIN");
+
+    /**
+     * A user holding the first roleCount roles (1 to 3)
+     */
+    static User user(int roleCount) {
+        Set<Role> roles = new HashSet<>();
+        for (int i = 0; i < roleCount; i++) {
+            Role role = new Role(ROLE_NAMES.get(i));
+            role.setId((long) i + 1);
+            roles.add(role);
+        }
+        return User.builder()
+                .id(1L)
+                .username("bench")
+                .password("ignored")
+                .enabled(true)
+                .roles(roles)
+                .build();
+    }
+}
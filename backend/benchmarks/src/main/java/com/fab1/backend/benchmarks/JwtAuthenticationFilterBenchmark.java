@@ -0,0 +1,92 @@
+package com.fab1.backend.benchmarks;
+
+import com.fab1.backend.config.SecurityConfig;
+import com.fab1.backend.model.User;
+import com.fab1.backend.service.AccountStatusService;
+import com.fab1.backend.service.AuthMetrics;
+import com.fab1.backend.service.JwtService;
+import com.fab1.backend.service.RevokedTokenRegistry;
+import com.fab1.backend.service.SigningKeyRing;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One pass through JwtAuthenticationFilter for an authenticated GET, as the
+ * server runs it: token verification, revocation check, principal lookup and
+ * the security context handed to the chain. The user lookup is a stub so only
+ * the filter's own cost is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"false", "true"})
+    public boolean stateless;
+
+    @Param({"false", "true"})
+    public boolean tokenCache;
+
+    private WebFilter filter;
+    private String authorization;
+
+    // The chain reads the context like any secured handler would
+    private final WebFilterChain chain = exchange -> ReactiveSecurityContextHolder.getContext().then();
+
+    @Setup
+    public void setUp() {
+        SigningKeyRing keyRing = BenchmarkFixtures.keyRing();
+        JwtService jwtService = BenchmarkFixtures.jwtService(keyRing, tokenCache);
+        User user = BenchmarkFixtures.user(2);
+
+        ReactiveUserDetailsService userDetailsService = username -> Mono.just(user);
+
+        // Repositories are never reached here: the account status is pre-warmed and
+        // the revocation check only reads memory
+        AccountStatusService accountStatusService =
+                new AccountStatusService(null, new SimpleMeterRegistry(), 60_000, 1_000);
+        accountStatusService.markActive(user.getId());
+        RevokedTokenRegistry revokedTokenRegistry =
+                new RevokedTokenRegistry(null, null, new SimpleMeterRegistry(), 100_000, 0.01);
+
+        filter = new SecurityConfig.JwtAuthenticationFilter(
+                jwtService, userDetailsService, accountStatusService, revokedTokenRegistry,
+                new AuthMetrics(new SimpleMeterRegistry()), stateless);
+        authorization = "Bearer " + jwtService.generateToken(user).block();
+    }
+
+    @Benchmark
+    public Void filter() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/api/auth/me").header("Authorization", authorization));
+        return filter.filter(exchange, chain).block();
+    }
+
+    @Benchmark
+    public Void filterWithoutToken() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/auth/me"));
+        return filter.filter(exchange, chain).block();
+    }
+}
@@ -0,0 +1,90 @@
+package com.fab1.backend.benchmarks;
+
+import com.fab1.backend.model.SigningKey;
+import com.fab1.backend.model.User;
+import com.fab1.backend.model.VerifiedToken;
+import com.fab1.backend.service.JwtService;
+import com.fab1.backend.service.SigningKeyRing;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuing and claim extraction. legacyFilterPath reproduces what the
+ * filter used to do per request (three parses, parser rebuilt each time) as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    @Param({"false", "true"})
+    public boolean tokenCache;
+
+    private SigningKey signingKey;
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        SigningKeyRing keyRing = BenchmarkFixtures.keyRing();
+        signingKey = keyRing.current();
+        jwtService = BenchmarkFixtures.jwtService(keyRing, tokenCache);
+        user = BenchmarkFixtures.user(2);
+        token = jwtService.generateToken(user).block();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user).block();
+    }
+
+    @Benchmark
+    public VerifiedToken verify() {
+        return jwtService.verify(token).block();
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token).block();
+    }
+
+    @Benchmark
+    public List<String> extractRoles() {
+        return jwtService.extractRoles(token).block();
+    }
+
+    @Benchmark
+    public boolean legacyFilterPath() {
+        String username = legacyClaims().getSubject();
+        String tokenUsername = legacyClaims().getSubject();
+        boolean expired = legacyClaims().getExpiration().before(new Date());
+        return tokenUsername.equals(username) && !expired;
+    }
+
+    private Claims legacyClaims() {
+        return Jwts.parser()
+                .verifyWith(signingKey.getPublicKey())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
@@ -0,0 +1,59 @@
+#!/usr/bin/env bash
+# Runs AuthLoadTest once per core count (the JVM is told it has N CPUs, so the
+# Netty event loops, the hashing pool and Reactor schedulers are sized for N),
+# then plots throughput against cores for each scenario.
+#
+# Usage (from backend/): load-test/scale.sh [core counts...]     default: 1 2 4 8
+# Extra Maven flags via MVN_ARGS, e.g. MVN_ARGS="-Dload.duration=30 -Dload.concurrency=128"
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+cores=("$@")
+if [ ${#cores[@]} -eq 0 ]; then
+    cores=(1 2 4 8)
+fi
+
+out=target/load-test
+csv="$out/scaling.csv"
+mkdir -p "$out"
+rm -f "$csv"
+
+for n in "${cores[@]}"; do
+    echo "== $n CPU(s)"
+    mvn -B -q -Pload-test test \
+        -Dload.jvmArgs="-XX:ActiveProcessorCount=$n" \
+        -Dload.output="$csv" \
+        ${MVN_ARGS:-}
+done
+
+# One column per scenario: cpus login me register
+table="$out/scaling.dat"
+scenarios=$(tail -n +2 "$csv" | cut -d, -f2 | sort -u)
+{
+    echo "cpus" $scenarios
+    for c in $(tail -n +2 "$csv" | cut -d, -f3 | sort -nu); do
+        row="$c"
+        for s in $scenarios; do
+            row="$row $(awk -F, -v c="$c" -v s="$s" '$3 == c && $2 == s { v = $7 } END { print v }' "$csv")"
+        done
+        echo "$row"
+    done
+} > "$table"
+
+echo
+echo "Débit (req/s) par nombre de CPU:"
+column -t "$table" 2>/dev/null || cat "$table"
+
+if command -v gnuplot > /dev/null; then
+    gnuplot <<GP
+set terminal svg size 800,500
+set output "$out/scaling.svg"
+set title "Débit par nombre de CPU"
+set xlabel "CPU"
+set ylabel "req/s"
+set key left top
+set grid
+plot for [col=2:*] "$table" using 1:col with linespoints title columnheader
+GP
+    echo "Graphique: $out/scaling.svg"
+fi
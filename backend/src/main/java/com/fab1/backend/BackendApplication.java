@@ -1,9 +1,16 @@
 package com.fab1.backend;
 
+import com.fab1.backend.config.NativeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@ConfigurationPropertiesScan
+@ImportRuntimeHints(NativeHints.class)
 public class BackendApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,96 @@
+package com.fab1.backend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt encoder whose work factor is picked at startup from a quick benchmark
+ * on the current hardware, so a hash costs about the configured target latency.
+ * upgradeEncoding() reports any stored hash with a different cost (higher or lower),
+ * which lets logins converge the stored hashes onto the calibrated cost.
+ */
+@Slf4j
+public class CalibratedPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+    private static final String PROBE = "calibration-probe";
+    private static final int PROBE_ROUNDS = 3;
+
+    private final BCryptPasswordEncoder delegate;
+    private final int cost;
+
+    public CalibratedPasswordEncoder(int cost) {
+        this.delegate = new BCryptPasswordEncoder(cost);
+        this.cost = cost;
+    }
+
+    public static CalibratedPasswordEncoder calibrate(Duration target, int minCost, int maxCost) {
+        long start = System.nanoTime();
+        int cost = chooseCost(target, minCost, maxCost);
+        log.info("Coût BCrypt calibré: {} (cible {} ms, bornes [{}, {}], calibration en {} ms)",
+                cost, target.toMillis(), minCost, maxCost, Duration.ofNanos(System.nanoTime() - start).toMillis());
+        return new CalibratedPasswordEncoder(cost);
+    }
+
+    /**
+     * Measure one hash at the minimum cost, then double the estimate per extra
+     * round (BCrypt is exactly 2^cost) while it still fits under the target
+     */
+    static int chooseCost(Duration target, int minCost, int maxCost) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minCost);
+        String hash = probe.encode(PROBE);
+        probe.matches(PROBE, hash); // warm-up
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < PROBE_ROUNDS; i++) {
+            long start = System.nanoTime();
+            probe.matches(PROBE, hash);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        long targetNanos = target.toNanos();
+        int cost = minCost;
+        long estimate = best;
+        while (cost < maxCost && estimate * 2 <= targetNanos) {
+            cost++;
+            estimate *= 2;
+        }
+        return cost;
+    }
+
+    /**
+     * Cost encoded in a BCrypt hash, or -1 if it isn't one
+     */
+    public static int costOf(String encodedPassword) {
+        if (encodedPassword == null) {
+            return -1;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int storedCost = costOf(encodedPassword);
+        return storedCost != -1 && storedCost != cost;
+    }
+}
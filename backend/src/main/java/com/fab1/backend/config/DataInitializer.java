@@ -1,143 +1,201 @@
 package com.fab1.backend.config;
 
+import com.fab1.backend.exception.HashingCapacityExceededException;
 import com.fab1.backend.model.Role;
 import com.fab1.backend.model.User;
 import com.fab1.backend.repository.RoleRepository;
 import com.fab1.backend.repository.UserRepository;
+import com.fab1.backend.service.PasswordHashingService;
+import com.fab1.backend.service.RoleCatalog;
+import com.fab1.backend.service.SchemaMigrator;
+import com.fab1.backend.service.UserCounter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
-
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Startup seed (seed.* properties), in one transaction: the roles, then the accounts
+ * by batches of multi-row INSERT IGNORE. Accounts that already exist are left as they
+ * are and not hashed again; each distinct password of the missing ones is hashed once,
+ * on the hashing pool, before the transaction opens. Accounts given the same password
+ * (the generated perf accounts) therefore share one hash, salt included. The "seed"
+ * health component keeps readiness DOWN until it has committed.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class DataInitializer {
 
+    private final SeedProperties properties;
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final RoleCatalog roleCatalog;
+    private final PasswordHashingService passwordHashingService;
+    private final UserCounter userCounter;
+    private final SchemaMigrator schemaMigrator;
+    private final TransactionalOperator transactionalOperator;
+
+    private final AtomicReference<Status> status = new AtomicReference<>(Status.pending());
 
     @EventListener(ApplicationReadyEvent.class)
     public void initialize() {
+        if (!properties.enabled()) {
+            status.set(new Status(true, 0, 0, null));
+            return;
+        }
+
         log.info("🚀 Initialisation des données...");
+        long start = System.nanoTime();
+        schemaMigrator.migrated()
+                .then(Mono.defer(this::seed))
+                .doOnError(error -> {
+                    log.error("❌ Erreur lors de l'initialisation, nouvel essai: {}", error.getMessage());
+                    status.set(status.get().failed(error));
+                })
+                // Idempotent and all-or-nothing: safe to run again from the start
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe(created -> {
+                    long tookMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+                    status.set(new Status(true, created, tookMs, null));
+                    log.info("✅ Initialisation des données terminée en {} ms ({} utilisateurs créés)", tookMs, created);
+                });
+    }
 
-        createRolesIfNotExist()
-                .then(createUsersIfNotExist())
-                .doOnSuccess(unused -> log.info("✅ Initialisation des données terminée"))
-                .doOnError(error -> log.error("❌ Erreur lors de l'initialisation: {}", error.getMessage()))
-                .subscribe();
-                /* Not blocking, executed in background*/
+    public Status getStatus() {
+        return status.get();
     }
 
-    private Mono<Void> createRolesIfNotExist() {
-        log.debug("Création des rôles...");
+    private Mono<Long> seed() {
+        List<Role> roles = properties.roles().stream()
+                .map(role -> new Role(role.name(), role.description()))
+                .toList();
+
+        // BCrypt takes seconds for a few distinct passwords: not while holding the transaction
+        return hashMissingPasswords()
+                .flatMap(hashes -> roleRepository.insertAllIgnoringDuplicates(roles)
+                        .thenMany(roleRepository.findAll())
+                        .collectMap(Role::getName)
+                        .flatMap(rolesByName -> accounts()
+                                .buffer(properties.batchSize())
+                                .concatMap(batch -> insertMissing(batch, rolesByName, hashes))
+                                .reduce(0L, (total, inserted) -> total + inserted))
+                        .as(transactionalOperator::transactional))
+                // Committed: the in-memory catalog and counters can see it
+                .flatMap(created -> roleCatalog.refresh()
+                        .then(created > 0 ? userCounter.reconcile().then() : Mono.<Void>empty())
+                        .thenReturn(created));
+    }
 
-        return Mono.when(
-                createRoleIfNotExists("USER", "Utilisateur standard"),
-                createRoleIfNotExists("ADMIN", "Administrateur système"),
-                createRoleIfNotExists("MODERATOR", "Modérateur")
-        );
+    private Flux<SeedProperties.SeedUser> accounts() {
+        SeedProperties.Generated generated = properties.generated();
+        return Flux.fromIterable(properties.users())
+                .concatWith(Flux.range(1, generated.count())
+                        .map(i -> new SeedProperties.SeedUser(generated.prefix() + i, generated.password(),
+                                true, generated.roles())));
     }
 
-    private Mono<Void> createRoleIfNotExists(String roleName, String description) {
-        return roleRepository.existsByName(roleName)
-                .flatMap(exists -> {
-                    if (!exists) {
-                        Role role = new Role(roleName, description);
-                        return roleRepository.save(role)
-                                .doOnSuccess(r -> log.info("✅ Rôle {} créé", roleName))
-                                .then();
+    /**
+     * Raw password -> hash, for the distinct passwords of the accounts missing right now
+     */
+    private Mono<Map<String, String>> hashMissingPasswords() {
+        return accounts()
+                .buffer(properties.batchSize())
+                .concatMap(this::missing)
+                .map(account -> {
+                    if (account.password() == null) {
+                        throw new IllegalStateException("Mot de passe manquant dans seed.users");
                     }
-                    return Mono.empty();
-                });
+                    return account.password();
+                })
+                .distinct()
+                .flatMap(password -> passwordHashingService.encode(password)
+                        .retryWhen(Retry.backoff(10, Duration.ofMillis(50))
+                                .maxBackoff(Duration.ofSeconds(2))
+                                .filter(HashingCapacityExceededException.class::isInstance))
+                        .map(hash -> Map.entry(password, hash)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
     }
 
-    private Mono<Void> createUsersIfNotExist() {
-        log.debug("Création des utilisateurs...");
-
-        return Mono.when(
-                createAdminUser(),
-                createStandardUser(),
-                createModeratorUser()
-        );
+    /**
+     * Accounts of the batch with no user yet. Usernames compare case-insensitively,
+     * like the unique index: "Admin" in the seed is the existing "admin".
+     */
+    private Flux<SeedProperties.SeedUser> missing(List<SeedProperties.SeedUser> batch) {
+        List<String> usernames = batch.stream().map(SeedProperties.SeedUser::username).toList();
+        return userRepository.findExistingUsernames(usernames)
+                .map(username -> username.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet())
+                .flatMapMany(existing -> Flux.fromIterable(batch)
+                        .filter(account -> !existing.contains(account.username().toLowerCase(Locale.ROOT))));
     }
 
-    private Mono<Void> createAdminUser() {
-        return userRepository.existsByUsername("admin")
-                .flatMap(exists -> {
-                    if (!exists) {
-                        return Mono.zip(
-                                        roleRepository.findByName("ADMIN"),
-                                        roleRepository.findByName("USER")
-                                ).flatMap(tuple -> {
-                                    Role adminRole = tuple.getT1();
-                                    Role userRole = tuple.getT2();
-
-                                    User admin = User.builder()
-                                            .username("admin")
-                                            .password(passwordEncoder.encode("password"))
-                                            .enabled(true)
-                                            .roles(Set.of(adminRole, userRole))
-                                            .build();
-
-                                    return userRepository.save(admin);
-                                }).doOnSuccess(user -> log.info("✅ Utilisateur admin créé (admin/password)"))
-                                .then();
+    /**
+     * One lookup of the batch usernames, one insert of the missing accounts with the
+     * hashes computed beforehand
+     */
+    private Mono<Long> insertMissing(List<SeedProperties.SeedUser> batch, Map<String, Role> roles,
+                                     Map<String, String> hashes) {
+        return missing(batch)
+                .map(account -> {
+                    String hash = hashes.get(account.password());
+                    if (hash == null) {
+                        // Deleted since the hashes were computed: the next attempt hashes it
+                        throw new IllegalStateException("Compte " + account.username() + " disparu pendant l'initialisation");
                     }
-                    return Mono.empty();
-                });
+                    return toUser(account, hash, roles);
+                })
+                .collectList()
+                // Roles go to the ids the insert returned: accounts created meanwhile by
+                // another instance are skipped with theirs
+                .flatMap(users -> userRepository.insertAllIgnoringDuplicates(users).count());
     }
 
-    private Mono<Void> createStandardUser() {
-        return userRepository.existsByUsername("user")
-                .flatMap(exists -> {
-                    if (!exists) {
-                        return roleRepository.findByName("USER")
-                                .flatMap(userRole -> {
-                                    User user = User.builder()
-                                            .username("user")
-                                            .password(passwordEncoder.encode("123456"))
-                                            .enabled(true)
-                                            .roles(Set.of(userRole))
-                                            .build();
-
-                                    return userRepository.save(user);
-                                }).doOnSuccess(user -> log.info("✅ Utilisateur user créé (user/123456)"))
-                                .then();
-                    }
-                    return Mono.empty();
-                });
+    private static User toUser(SeedProperties.SeedUser account, String hash, Map<String, Role> roles) {
+        Set<Role> userRoles = new HashSet<>();
+        for (String name : account.roles() != null ? account.roles() : List.<String>of()) {
+            Role role = roles.get(name);
+            if (role == null) {
+                throw new IllegalStateException("Rôle inconnu pour " + account.username() + ": " + name);
+            }
+            userRoles.add(role);
+        }
+        return User.builder()
+                .username(account.username())
+                .password(hash)
+                .enabled(account.enabled())
+                .roles(userRoles)
+                .build();
     }
 
-    private Mono<Void> createModeratorUser() {
-        return userRepository.existsByUsername("moderator")
-                .flatMap(exists -> {
-                    if (!exists) {
-                        return Mono.zip(
-                                        roleRepository.findByName("MODERATOR"),
-                                        roleRepository.findByName("USER")
-                                ).flatMap(tuple -> {
-                                    Role moderatorRole = tuple.getT1();
-                                    Role userRole = tuple.getT2();
-
-                                    User moderator = User.builder()
-                                            .username("moderator")
-                                            .password(passwordEncoder.encode("mod123"))
-                                            .enabled(true)
-                                            .roles(Set.of(moderatorRole, userRole))
-                                            .build();
-
-                                    return userRepository.save(moderator);
-                                }).doOnSuccess(user -> log.info("✅ Utilisateur moderator créé (moderator/mod123)"))
-                                .then();
-                    }
-                    return Mono.empty();
-                });
+    /**
+     * @param done      seed committed (or disabled)
+     * @param created   accounts inserted by this instance
+     * @param tookMs    time from startup to the commit
+     * @param lastError message of the last failed attempt, if any
+     */
+    public record Status(boolean done, long created, long tookMs, String lastError) {
+
+        static Status pending() {
+            return new Status(false, 0, 0, null);
+        }
+
+        Status failed(Throwable error) {
+            return new Status(false, created, tookMs, String.valueOf(error.getMessage()));
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,92 @@
+package com.fab1.backend.config;
+
+import com.fab1.backend.dto.LoginResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JSON bodies of the fixed error answers, serialized once. Failed logins, bad tokens
+ * and throttled requests are most of what an attack produces: answering them must
+ * not cost an ObjectMapper walk (or a new ObjectMapper) per request.
+ */
+public final class ErrorResponses {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    // Keyed by client message: a handful of constant strings, so this stays tiny
+    private static final Map<String, byte[]> FAILURES = new ConcurrentHashMap<>();
+
+    public static final SecurityError UNAUTHORIZED =
+            new SecurityError(HttpStatus.UNAUTHORIZED, "Non autorisé", "Token JWT manquant ou invalide");
+    public static final SecurityError FORBIDDEN =
+            new SecurityError(HttpStatus.FORBIDDEN, "Accès refusé", "Permissions insuffisantes");
+
+    private ErrorResponses() {
+    }
+
+    /**
+     * {"success":false,"message":...} exactly as LoginResponse.failure(message) would serialize.
+     * The array is shared: callers hand it to the response as is and never modify it.
+     */
+    public static byte[] failure(String message) {
+        return FAILURES.computeIfAbsent(message, ErrorResponses::encode);
+    }
+
+    private static byte[] encode(String message) {
+        try {
+            return JSON.writeValueAsBytes(LoginResponse.failure(message));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sérialisation impossible: " + message, e);
+        }
+    }
+
+    /**
+     * 401/403 body written by Spring Security handlers: everything up to the timestamp
+     * is encoded once, only the timestamp and the (escaped) path are appended per request
+     */
+    public static final class SecurityError {
+
+        private static final byte[] PATH_FIELD = ",\"path\":\"".getBytes(StandardCharsets.UTF_8);
+        private static final byte[] END = "\"}".getBytes(StandardCharsets.UTF_8);
+
+        private final HttpStatus status;
+        private final byte[] prefix;
+
+        private SecurityError(HttpStatus status, String error, String message) {
+            this.status = status;
+            try {
+                String head = JSON.writeValueAsString(Map.of("error", error, "message", message));
+                // Reopen the object: {"error":..,"message":..,"timestamp":
+                this.prefix = (head.substring(0, head.length() - 1) + ",\"timestamp\":")
+                        .getBytes(StandardCharsets.UTF_8);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Sérialisation impossible: " + error, e);
+            }
+        }
+
+        public Mono<Void> write(ServerWebExchange exchange) {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(status);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+            byte[] timestamp = Long.toString(System.currentTimeMillis()).getBytes(StandardCharsets.US_ASCII);
+            byte[] path = JsonStringEncoder.getInstance().quoteAsUTF8(exchange.getRequest().getPath().value());
+
+            DataBuffer buffer = response.bufferFactory().allocateBuffer(
+                    prefix.length + timestamp.length + PATH_FIELD.length + path.length + END.length);
+            buffer.write(prefix).write(timestamp).write(PATH_FIELD).write(path).write(END);
+            return response.writeWith(Mono.just(buffer));
+        }
+    }
+}
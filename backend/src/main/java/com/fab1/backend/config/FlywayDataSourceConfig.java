@@ -1,28 +0,0 @@
-package com.fab1.backend.config;
-
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-
-import javax.sql.DataSource;
-import org.springframework.boot.jdbc.DataSourceBuilder;
-
-@Configuration
-public class FlywayDataSourceConfig {
-
-    @Bean
-    @FlywayDataSource
-    public DataSource flywayDataSource(
-            @Value("${spring.datasource.url}") String url,
-            @Value("${spring.datasource.username}") String username,
-            @Value("${spring.datasource.password}") String password
-    ) {
-        return DataSourceBuilder.create()
-                .url(url)
-                .username(username)
-                .password(password)
-                .driverClassName("org.mariadb.jdbc.Driver")
-                .build();
-    }
-}
\ No newline at end of file
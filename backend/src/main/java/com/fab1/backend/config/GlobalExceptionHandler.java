@@ -1,18 +1,20 @@
 package com.fab1.backend.config;
 
 import com.fab1.backend.dto.LoginResponse;
+import com.fab1.backend.exception.AuthException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Mono;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestControllerAdvice
@@ -55,6 +57,34 @@ public class GlobalExceptionHandler {
         return Mono.just(ResponseEntity.badRequest().body(response));
     }
 
+    /**
+     * Expected auth failures: status, Retry-After and message come from the exception,
+     * the body is pre-serialized. Logged at debug, the service layer already logged the cause.
+     */
+    @ExceptionHandler(AuthException.class)
+    public Mono<ResponseEntity<byte[]>> handleAuthException(AuthException ex) {
+        log.debug("Requête refusée ({}): {}", ex.getStatus().value(), ex.getMessage());
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(ex.getStatus())
+                .contentType(MediaType.APPLICATION_JSON);
+        if (ex.getRetryAfterSeconds() > 0) {
+            response.header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()));
+        }
+        return Mono.just(response.body(ErrorResponses.failure(ex.getClientMessage())));
+    }
+
+    /**
+     * Malformed request (bad parameter, unreadable body...): keep the status it carries
+     * instead of falling through to the 500 handler below
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public Mono<ResponseEntity<LoginResponse>> handleResponseStatusException(ResponseStatusException ex) {
+        log.warn("Requête rejetée ({}): {}", ex.getStatusCode().value(), ex.getReason());
+
+        LoginResponse response = LoginResponse.failure(ex.getReason() != null ? ex.getReason() : "Requête invalide");
+        return Mono.just(ResponseEntity.status(ex.getStatusCode()).body(response));
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public Mono<ResponseEntity<LoginResponse>> handleRuntimeException(RuntimeException ex) {
         log.error("Erreur runtime: {}", ex.getMessage(), ex);
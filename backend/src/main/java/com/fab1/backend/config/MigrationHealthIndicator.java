@@ -0,0 +1,35 @@
+package com.fab1.backend.config;
+
+import com.fab1.backend.service.SchemaMigrator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * "migration" health component, part of the readiness group: OUT_OF_SERVICE until the schema is up to date
+ */
+@Component
+@RequiredArgsConstructor
+public class MigrationHealthIndicator implements ReactiveHealthIndicator {
+
+    private final SchemaMigrator schemaMigrator;
+
+    @Override
+    public Mono<Health> health() {
+        SchemaMigrator.Status status = schemaMigrator.getStatus();
+        if (status.done()) {
+            return Mono.just(Health.up()
+                    .withDetail("applied", status.applied())
+                    .withDetail("tookMs", status.tookMs())
+                    .build());
+        }
+
+        Health.Builder health = Health.outOfService();
+        if (status.lastError() != null) {
+            health.withDetail("lastError", status.lastError());
+        }
+        return Mono.just(health.build());
+    }
+}
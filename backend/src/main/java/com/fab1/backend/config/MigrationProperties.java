@@ -0,0 +1,22 @@
+package com.fab1.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Schema migrations, applied over R2DBC at startup (SchemaMigrator).
+ *
+ * @param enabled     skip migrations entirely when false (schema managed elsewhere)
+ * @param locations   pattern of the V{version}__{description}.sql scripts
+ * @param lockTimeout how long to wait for another instance migrating the same database
+ * @param installedBy recorded in flyway_schema_history.installed_by
+ */
+@ConfigurationProperties("migration")
+public record MigrationProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("classpath*:db/migration/V*__*.sql") String locations,
+        @DefaultValue("60s") Duration lockTimeout,
+        @DefaultValue("backend") String installedBy) {
+}
@@ -0,0 +1,89 @@
+package com.fab1.backend.config;
+
+import com.fab1.backend.dto.BulkOperationResult;
+import com.fab1.backend.dto.BulkUserRequest;
+import com.fab1.backend.dto.LoginRequest;
+import com.fab1.backend.dto.LoginResponse;
+import com.fab1.backend.dto.RefreshRequest;
+import com.fab1.backend.dto.UserCounts;
+import com.fab1.backend.dto.UserImportResult;
+import com.fab1.backend.dto.UserImportRow;
+import com.fab1.backend.dto.UserPage;
+import com.fab1.backend.dto.UserResponse;
+import com.fab1.backend.dto.UserSummary;
+import com.fab1.backend.model.JwtSigningKey;
+import com.fab1.backend.model.RefreshToken;
+import com.fab1.backend.model.RevokedToken;
+import com.fab1.backend.model.Role;
+import com.fab1.backend.model.User;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.util.List;
+
+/**
+ * What the AOT engine can't see on its own, for the native image (-Pnative).
+ * Ignored on a regular JVM.
+ */
+public class NativeHints implements RuntimeHintsRegistrar {
+
+    /**
+     * Bound by Jackson or mapped by Spring Data through the Lombok-generated
+     * constructors and accessors
+     */
+    private static final List<Class<?>> BOUND_TYPES = List.of(
+            User.class, Role.class, RefreshToken.class, RevokedToken.class, JwtSigningKey.class,
+            LoginRequest.class, LoginResponse.class, RefreshRequest.class, UserResponse.class,
+            UserSummary.class, UserPage.class, UserCounts.class, UserImportRow.class, UserImportResult.class,
+            BulkUserRequest.class, BulkOperationResult.class);
+
+    /**
+     * jjwt-api instantiates its implementation by class name, jjwt-impl finds
+     * the Jackson serializer through ServiceLoader
+     */
+    private static final List<String> JJWT_TYPES = List.of(
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardCurves",
+            "io.jsonwebtoken.impl.security.DefaultJwkParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer");
+
+    /**
+     * ConnectionFactories looks the drivers up through ServiceLoader
+     */
+    private static final List<String> R2DBC_TYPES = List.of(
+            "org.mariadb.r2dbc.MariadbConnectionFactoryProvider",
+            "io.r2dbc.pool.PoolingConnectionFactoryProvider");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                BOUND_TYPES.toArray(Class<?>[]::new));
+
+        for (String type : JJWT_TYPES) {
+            hints.reflection().registerTypeIfPresent(classLoader, type,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        for (String type : R2DBC_TYPES) {
+            hints.reflection().registerTypeIfPresent(classLoader, type, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+
+        hints.resources()
+                .registerPattern("META-INF/services/io.jsonwebtoken.*")
+                .registerPattern("META-INF/services/io.r2dbc.spi.ConnectionFactoryProvider")
+                // Listed and read by SchemaMigrator (migration.locations)
+                .registerPattern("db/migration/*.sql");
+    }
+}
@@ -1,16 +1,23 @@
 package com.fab1.backend.config;
 
+import com.fab1.backend.model.TokenPrincipal;
+import com.fab1.backend.model.VerifiedToken;
+import com.fab1.backend.service.AccountStatusService;
+import com.fab1.backend.service.AuthMetrics;
 import com.fab1.backend.service.CustomUserDetailsService;
 import com.fab1.backend.service.JwtService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fab1.backend.service.PasswordHashingService;
+import com.fab1.backend.service.RevokedTokenRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
 import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -20,12 +27,15 @@ import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.security.web.server.ServerAuthenticationEntryPoint;
 import org.springframework.security.web.server.authorization.ServerAccessDeniedHandler;
 import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.util.matcher.AndServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.CorsConfigurationSource;
 import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
@@ -34,9 +44,10 @@ import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 
+import java.net.InetSocketAddress;
+import java.time.Duration;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Optional;
 
 @Configuration
 @EnableWebFluxSecurity
@@ -46,22 +57,38 @@ public class SecurityConfig {
 
     private final JwtService jwtService;
     private final CustomUserDetailsService customUserDetailsService;
+    private final AccountStatusService accountStatusService;
+    private final RevokedTokenRegistry revokedTokenRegistry;
+    private final AuthMetrics authMetrics;
+    private final Environment environment;
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
+    // Build the principal from token claims instead of loading the user on every request
+    @Value("${jwt.stateless.enabled:false}")
+    private boolean statelessAuthentication;
 
     @Bean
-    public ReactiveUserDetailsService reactiveUserDetailsService() {
-        return customUserDetailsService;
+    public PasswordEncoder passwordEncoder(@Value("${security.password.target-hash-ms:250}") long targetHashMs,
+                                           @Value("${security.password.min-cost:10}") int minCost,
+                                           @Value("${security.password.max-cost:14}") int maxCost,
+                                           MeterRegistry meterRegistry) {
+        CalibratedPasswordEncoder encoder =
+                CalibratedPasswordEncoder.calibrate(Duration.ofMillis(targetHashMs), minCost, maxCost);
+        Gauge.builder("auth.password.bcrypt.cost", encoder, CalibratedPasswordEncoder::getCost)
+                .description("Coût BCrypt choisi au démarrage")
+                .register(meterRegistry);
+        return encoder;
     }
 
     @Bean
-    public ReactiveAuthenticationManager reactiveAuthenticationManager() {
+    public ReactiveAuthenticationManager reactiveAuthenticationManager(PasswordEncoder passwordEncoder,
+                                                                       PasswordHashingService passwordHashingService) {
         UserDetailsRepositoryReactiveAuthenticationManager authManager =
-                new UserDetailsRepositoryReactiveAuthenticationManager(reactiveUserDetailsService());
-        authManager.setPasswordEncoder(passwordEncoder());
+                new UserDetailsRepositoryReactiveAuthenticationManager(customUserDetailsService);
+        authManager.setPasswordEncoder(passwordEncoder);
+        // Re-encode hashes whose cost differs from the calibrated one after a successful login
+        authManager.setUserDetailsPasswordService(customUserDetailsService);
+        // BCrypt runs on the bounded hashing pool, never on the event loop
+        authManager.setScheduler(passwordHashingService.getScheduler());
         return authManager;
     }
 
@@ -79,8 +106,17 @@ public class SecurityConfig {
                         // Public endpoints
                         .pathMatchers(HttpMethod.POST, "/api/auth/login").permitAll()
                         .pathMatchers(HttpMethod.POST, "/api/auth/register").permitAll()
+                        .pathMatchers(HttpMethod.POST, "/api/auth/refresh").permitAll()
+                        // Still works with an expired access token, so the refresh token gets revoked
+                        .pathMatchers(HttpMethod.POST, "/api/auth/logout").permitAll()
                         .pathMatchers(HttpMethod.GET, "/api/auth/test").permitAll()
                         .pathMatchers(HttpMethod.GET, "/api/auth/health").permitAll()
+                        .pathMatchers(HttpMethod.GET, "/.well-known/jwks.json").permitAll()
+                        // Health probes and Prometheus scraping, open on the management port only
+                        .matchers(new AndServerWebExchangeMatcher(
+                                ServerWebExchangeMatchers.pathMatchers(HttpMethod.GET,
+                                        "/actuator/health/**", "/actuator/prometheus"),
+                                onManagementPort())).permitAll()
 
                         // Admin endpoints
                         .pathMatchers("/api/admin/**").hasRole("ADMIN")
@@ -98,9 +134,29 @@ public class SecurityConfig {
                 .build();
     }
 
-    @Bean
-    public WebFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(jwtService, reactiveUserDetailsService());
+    /**
+     * Requests received on the separate management port. When management.server.port is
+     * unset or equal to server.port nothing matches, so the actuator needs a token
+     * rather than becoming public on the application port.
+     */
+    private ServerWebExchangeMatcher onManagementPort() {
+        return exchange -> {
+            // Published once the management server has started (resolves random ports too)
+            Integer managementPort = environment.getProperty("local.management.port", Integer.class);
+            InetSocketAddress local = exchange.getRequest().getLocalAddress();
+            return managementPort != null && local != null && local.getPort() == managementPort
+                    ? ServerWebExchangeMatcher.MatchResult.match()
+                    : ServerWebExchangeMatcher.MatchResult.notMatch();
+        };
+    }
+
+    /**
+     * Added to the security chain only. As a WebFilter bean Boot would also register it
+     * on the server, and every request would be verified twice.
+     */
+    private WebFilter jwtAuthenticationFilter() {
+        return new JwtAuthenticationFilter(jwtService, customUserDetailsService,
+                accountStatusService, revokedTokenRegistry, authMetrics, statelessAuthentication);
     }
 
     @Bean
@@ -120,29 +176,8 @@ public class SecurityConfig {
     @Bean
     public ServerAuthenticationEntryPoint authenticationEntryPoint() {
         return (exchange, ex) -> {
-            log.warn("Tentative d'accès non autorisée: {}", ex.getMessage());
-
-            exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
-            exchange.getResponse().getHeaders().add("Content-Type", MediaType.APPLICATION_JSON_VALUE);
-
-            Map<String, Object> body = new HashMap<>();
-            body.put("error", "Non autorisé");
-            body.put("message", "Token JWT manquant ou invalide");
-            body.put("timestamp", System.currentTimeMillis());
-            body.put("path", exchange.getRequest().getPath().value());
-
-            try {
-                ObjectMapper mapper = new ObjectMapper();
-                String json = mapper.writeValueAsString(body);
-                return exchange.getResponse().writeWith(
-                        Mono.just(exchange.getResponse().bufferFactory().wrap(json.getBytes()))
-                );
-            } catch (Exception e) {
-                log.error("Erreur lors de la sérialisation JSON: {}", e.getMessage());
-                return exchange.getResponse().writeWith(
-                        Mono.just(exchange.getResponse().bufferFactory().wrap("Unauthorized".getBytes()))
-                );
-            }
+            log.debug("Tentative d'accès non autorisée: {}", ex.getMessage());
+            return ErrorResponses.UNAUTHORIZED.write(exchange);
         };
     }
 
@@ -150,28 +185,7 @@ public class SecurityConfig {
     public ServerAccessDeniedHandler accessDeniedHandler() {
         return (exchange, denied) -> {
             log.warn("Accès refusé pour l'utilisateur: {}", denied.getMessage());
-
-            exchange.getResponse().setStatusCode(HttpStatus.FORBIDDEN);
-            exchange.getResponse().getHeaders().add("Content-Type", MediaType.APPLICATION_JSON_VALUE);
-
-            Map<String, Object> body = new HashMap<>();
-            body.put("error", "Accès refusé");
-            body.put("message", "Permissions insuffisantes");
-            body.put("timestamp", System.currentTimeMillis());
-            body.put("path", exchange.getRequest().getPath().value());
-
-            try {
-                ObjectMapper mapper = new ObjectMapper();
-                String json = mapper.writeValueAsString(body);
-                return exchange.getResponse().writeWith(
-                        Mono.just(exchange.getResponse().bufferFactory().wrap(json.getBytes()))
-                );
-            } catch (Exception e) {
-                log.error("Erreur lors de la sérialisation JSON: {}", e.getMessage());
-                return exchange.getResponse().writeWith(
-                        Mono.just(exchange.getResponse().bufferFactory().wrap("Forbidden".getBytes()))
-                );
-            }
+            return ErrorResponses.FORBIDDEN.write(exchange);
         };
     }
 
@@ -187,6 +201,10 @@ public class SecurityConfig {
 
         private final JwtService jwtService;
         private final ReactiveUserDetailsService userDetailsService;
+        private final AccountStatusService accountStatusService;
+        private final RevokedTokenRegistry revokedTokenRegistry;
+        private final AuthMetrics authMetrics;
+        private final boolean stateless;
 
         @Override
         public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
@@ -197,47 +215,100 @@ public class SecurityConfig {
                 return chain.filter(exchange);
             }
 
-            return extractTokenFromRequest(exchange)
-                    .flatMap(token ->
-                            jwtService.extractUsername(token)
-                                    .flatMap(username ->
-                                            jwtService.validateToken(token, username)
-                                                    .filter(Boolean::booleanValue)
-                                                    .flatMap(valid -> userDetailsService.findByUsername(username))
-                                                    .flatMap(userDetails -> {
-                                                        Authentication authentication =
-                                                                new UsernamePasswordAuthenticationToken(
-                                                                        userDetails, null, userDetails.getAuthorities());
-
-                                                        return chain.filter(exchange)
-                                                                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
-                                                    })
-                                    )
-                    )
-                    .switchIfEmpty(chain.filter(exchange))
+            long extractStart = System.nanoTime();
+            String token = extractTokenFromRequest(exchange);
+            authMetrics.tokenExtracted(System.nanoTime() - extractStart);
+            if (token == null) {
+                return chain.filter(exchange);
+            }
+
+            // Resolve the authentication first so the chain runs exactly once, whatever happens
+            return authenticate(token)
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(authentication -> authentication
+                            .map(auth -> chain.filter(exchange)
+                                    .contextWrite(ReactiveSecurityContextHolder.withAuthentication(auth)))
+                            .orElseGet(() -> chain.filter(exchange)));
+        }
+
+        private Mono<Authentication> authenticate(String token) {
+            // One signature check + parse per request, expiry included
+            return Mono.defer(() -> {
+                        long verifyStart = System.nanoTime();
+                        return jwtService.verify(token)
+                                .doOnNext(verified -> authMetrics.tokenVerified(System.nanoTime() - verifyStart))
+                                .doOnError(error -> authMetrics.tokenFailed(System.nanoTime() - verifyStart, error));
+                    })
+                    // Logged out or deleted: a bit-array probe, no DB, the exact set only on a filter hit
+                    .filter(this::notRevoked)
+                    .flatMap(this::resolvePrincipal)
+                    .cast(Authentication.class)
                     .onErrorResume(error -> {
                         log.debug("JWT validation failed: {}", error.getMessage());
-                        return chain.filter(exchange);
+                        return Mono.empty();
                     });
         }
 
-        private Mono<String> extractTokenFromRequest(ServerWebExchange exchange) {
-            return Mono.fromSupplier(() -> {
-                String authHeader = exchange.getRequest().getHeaders().getFirst("Authorization");
-                if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                    return authHeader.substring(7);
-                }
-                return null;
-            }).filter(token -> token != null);
+        private boolean notRevoked(VerifiedToken verified) {
+            if (revokedTokenRegistry.isRevoked(verified.getTokenId())) {
+                authMetrics.tokenRejected(AuthMetrics.Rejection.REVOKED);
+                return false;
+            }
+            return true;
+        }
+
+        private Mono<UsernamePasswordAuthenticationToken> resolvePrincipal(VerifiedToken verified) {
+            boolean fromClaims = stateless && verified.getUserId() != null;
+            return Mono.defer(() -> {
+                long start = System.nanoTime();
+                return (fromClaims ? authenticateFromClaims(verified) : authenticateFromDatabase(verified))
+                        // Kept so logout / delete-account can revoke this very token
+                        .doOnNext(authentication -> authentication.setDetails(verified))
+                        .doFinally(signal -> authMetrics.principalResolved(System.nanoTime() - start, fromClaims));
+            });
+        }
+
+        private Mono<UsernamePasswordAuthenticationToken> authenticateFromClaims(VerifiedToken verified) {
+            // No user row needed: roles and id are in the signed claims, only the account status is checked
+            return accountStatusService.isActive(verified.getUserId())
+                    .filter(active -> {
+                        if (!active) {
+                            authMetrics.tokenRejected(AuthMetrics.Rejection.INACTIVE);
+                        }
+                        return active;
+                    })
+                    .map(active -> new UsernamePasswordAuthenticationToken(
+                            new TokenPrincipal(verified.getSubject(), verified.getUserId()),
+                            null, verified.getAuthorities()));
+        }
+
+        private Mono<UsernamePasswordAuthenticationToken> authenticateFromDatabase(VerifiedToken verified) {
+            return userDetailsService.findByUsername(verified.getSubject())
+                    .doOnError(UsernameNotFoundException.class,
+                            error -> authMetrics.tokenRejected(AuthMetrics.Rejection.UNKNOWN_USER))
+                    .map(userDetails ->
+                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+        }
+
+        private String extractTokenFromRequest(ServerWebExchange exchange) {
+            String authHeader = exchange.getRequest().getHeaders().getFirst("Authorization");
+            if (authHeader != null && authHeader.startsWith("Bearer ")) {
+                return authHeader.substring(7);
+            }
+            return null;
         }
 
         private boolean isPublicPath(String path) {
-            return path.startsWith("/api/auth/") ||
-                    path.startsWith("/h2-console/") ||
+            // /me, /logout and /delete-account live under /api/auth/ too and need the token
+            return path.startsWith("/h2-console/") ||
                     path.equals("/api/auth/login") ||
                     path.equals("/api/auth/register") ||
+                    path.equals("/api/auth/refresh") ||
                     path.equals("/api/auth/test") ||
-                    path.equals("/api/auth/health");
+                    path.equals("/api/auth/health") ||
+                    path.equals("/.well-known/jwks.json") ||
+                    path.startsWith("/actuator/");
         }
     }
 }
\ No newline at end of file
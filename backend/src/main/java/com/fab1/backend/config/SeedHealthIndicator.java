@@ -0,0 +1,34 @@
+package com.fab1.backend.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * "seed" health component, part of the readiness group: OUT_OF_SERVICE until the startup seed is committed
+ */
+@Component
+@RequiredArgsConstructor
+public class SeedHealthIndicator implements ReactiveHealthIndicator {
+
+    private final DataInitializer dataInitializer;
+
+    @Override
+    public Mono<Health> health() {
+        DataInitializer.Status status = dataInitializer.getStatus();
+        if (status.done()) {
+            return Mono.just(Health.up()
+                    .withDetail("created", status.created())
+                    .withDetail("tookMs", status.tookMs())
+                    .build());
+        }
+
+        Health.Builder health = Health.outOfService();
+        if (status.lastError() != null) {
+            health.withDetail("lastError", status.lastError());
+        }
+        return Mono.just(health.build());
+    }
+}
@@ -0,0 +1,45 @@
+package com.fab1.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Startup seed (DataInitializer): roles and accounts inserted when missing.
+ *
+ * @param enabled   skip the seed entirely when false (readiness doesn't wait for it)
+ * @param batchSize accounts per multi-row insert
+ * @param roles     roles to create
+ * @param users     accounts to create, with their role names
+ * @param generated numbered accounts for perf environments
+ */
+@ConfigurationProperties("seed")
+public record SeedProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("500") int batchSize,
+        List<SeedRole> roles,
+        List<SeedUser> users,
+        @DefaultValue Generated generated) {
+
+    public SeedProperties {
+        roles = roles != null ? roles : List.of();
+        users = users != null ? users : List.of();
+    }
+
+    public record SeedRole(String name, String description) {
+    }
+
+    public record SeedUser(String username, String password, @DefaultValue("true") boolean enabled, List<String> roles) {
+    }
+
+    /**
+     * {prefix}1 .. {prefix}{count}, all with the same password (hashed once)
+     */
+    public record Generated(
+            @DefaultValue("0") int count,
+            @DefaultValue("perf-user-") String prefix,
+            @DefaultValue("perf-password") String password,
+            @DefaultValue("USER") List<String> roles) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.fab1.backend.config;
+
+import com.fab1.backend.service.StartupWarmup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * "warmup" health component, part of the readiness group: OUT_OF_SERVICE until StartupWarmup has succeeded
+ */
+@Component
+@RequiredArgsConstructor
+public class WarmupHealthIndicator implements ReactiveHealthIndicator {
+
+    private final StartupWarmup startupWarmup;
+
+    @Override
+    public Mono<Health> health() {
+        StartupWarmup.Status status = startupWarmup.getStatus();
+        if (status.ready()) {
+            return Mono.just(Health.up()
+                    .withDetail("connections", status.connections())
+                    .withDetail("tookMs", status.tookMs())
+                    .build());
+        }
+
+        Health.Builder health = Health.outOfService();
+        if (status.lastError() != null) {
+            health.withDetail("lastError", status.lastError());
+        }
+        return Mono.just(health.build());
+    }
+}
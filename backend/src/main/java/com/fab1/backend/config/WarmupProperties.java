@@ -0,0 +1,20 @@
+package com.fab1.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Startup warm-up, run before the readiness probe reports UP.
+ *
+ * @param enabled       skip the warm-up entirely when false (readiness is UP right away)
+ * @param timeout       limit for one warm-up attempt, retried with backoff after that
+ * @param probeUsername username looked up to exercise the user queries (need not exist)
+ */
+@ConfigurationProperties("warmup")
+public record WarmupProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("30s") Duration timeout,
+        @DefaultValue("warmup-probe") String probeUsername) {
+}
@@ -0,0 +1,128 @@
+package com.fab1.backend.controller;
+
+import com.fab1.backend.dto.BulkOperationResult;
+import com.fab1.backend.dto.BulkUserRequest;
+import com.fab1.backend.dto.UserCounts;
+import com.fab1.backend.dto.UserImportResult;
+import com.fab1.backend.dto.UserImportRow;
+import com.fab1.backend.dto.UserPage;
+import com.fab1.backend.dto.UserSummary;
+import com.fab1.backend.model.Role;
+import com.fab1.backend.service.CustomUserDetailsService;
+import com.fab1.backend.service.RoleCatalog;
+import com.fab1.backend.service.UserAdministrationService;
+import com.fab1.backend.service.UserCounter;
+import com.fab1.backend.service.UserImportService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = "http://localhost:5173")
+@RequiredArgsConstructor
+@Slf4j
+public class AdminController {
+
+    private final RoleCatalog roleCatalog;
+    private final UserImportService userImportService;
+    private final UserAdministrationService userAdministrationService;
+    private final CustomUserDetailsService userDetailsService;
+    private final UserCounter userCounter;
+
+    @GetMapping("/roles")
+    public Flux<Role> roles() {
+        return Flux.fromIterable(roleCatalog.all());
+    }
+
+    @PostMapping("/roles/refresh")
+    public Mono<String> refreshRoles() {
+        log.info("Rechargement du catalogue des rôles demandé");
+
+        return roleCatalog.refresh()
+                .map(count -> "Catalogue des rôles rechargé: " + count + " rôles");
+    }
+
+    /**
+     * Keyset-paginated listing: follow nextCursor with ?after=, optional username prefix
+     */
+    @GetMapping("/users")
+    public Mono<UserPage> users(@RequestParam(required = false) String prefix,
+                                @RequestParam(required = false) String after,
+                                @RequestParam(defaultValue = "50") int limit) {
+        return userAdministrationService.listUsers(prefix, after, limit);
+    }
+
+    /**
+     * Totals (all, enabled/disabled, per role) from the in-memory counter, no query
+     */
+    @GetMapping("/users/count")
+    public Mono<UserCounts> countUsers() {
+        return userCounter.counts();
+    }
+
+    /**
+     * Full export as NDJSON or SSE (Accept header), streamed at the client's pace
+     */
+    @GetMapping(value = "/users/export",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<UserSummary> exportUsers(@RequestParam(required = false) String prefix) {
+        log.info("Export des utilisateurs demandé (préfixe: {})", prefix);
+        return userAdministrationService.exportUsers(prefix);
+    }
+
+    /**
+     * Bulk import from an NDJSON stream, one account per line:
+     * {"username":..,"password":..} or {"username":..,"passwordHash":"$2a$.."}, optional role and enabled.
+     * Results are streamed back as NDJSON while the body is still being read.
+     */
+    @PostMapping(value = "/users/import",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserImportResult> importUsers(@RequestBody Flux<UserImportRow> rows) {
+        log.info("Import d'utilisateurs (NDJSON) demandé");
+        return userImportService.importUsers(rows);
+    }
+
+    /**
+     * Same import from CSV, first line is the header (username,password,passwordHash,role,enabled)
+     */
+    @PostMapping(value = "/users/import", consumes = "text/csv", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserImportResult> importUsersCsv(@RequestBody Flux<String> lines) {
+        log.info("Import d'utilisateurs (CSV) demandé");
+        return userImportService.importUsers(UserImportService.parseCsv(lines));
+    }
+
+    /*
+     * Bulk operations: one call, one transaction, a handful of set-based statements
+     * whatever the number of users
+     */
+
+    @PostMapping("/users/bulk/enable")
+    public Mono<BulkOperationResult> enableUsers(@Valid @RequestBody BulkUserRequest request) {
+        return userDetailsService.setUsersEnabled(request.getUsernames(), true);
+    }
+
+    @PostMapping("/users/bulk/disable")
+    public Mono<BulkOperationResult> disableUsers(@Valid @RequestBody BulkUserRequest request) {
+        return userDetailsService.setUsersEnabled(request.getUsernames(), false);
+    }
+
+    @PostMapping("/users/bulk/delete")
+    public Mono<BulkOperationResult> deleteUsers(@Valid @RequestBody BulkUserRequest request) {
+        return userDetailsService.deleteUsers(request.getUsernames());
+    }
+
+    @PostMapping("/users/bulk/roles")
+    public Mono<BulkOperationResult> assignRoles(@Valid @RequestBody BulkUserRequest request) {
+        if (request.getRoles() == null || request.getRoles().isEmpty()) {
+            return Mono.error(new ServerWebInputException("La liste des rôles est obligatoire"));
+        }
+        return userDetailsService.assignRoles(request.getUsernames(), request.getRoles());
+    }
+}
@@ -2,18 +2,34 @@ package com.fab1.backend.controller;
 
 import com.fab1.backend.dto.LoginRequest;
 import com.fab1.backend.dto.LoginResponse;
+import com.fab1.backend.dto.RefreshRequest;
 import com.fab1.backend.dto.UserResponse;
+import com.fab1.backend.exception.HashingCapacityExceededException;
+import com.fab1.backend.exception.InvalidCredentialsException;
+import com.fab1.backend.exception.TooManyLoginAttemptsException;
+import com.fab1.backend.exception.UserAlreadyExistsException;
 import com.fab1.backend.model.User;
+import com.fab1.backend.model.VerifiedToken;
+import com.fab1.backend.service.AuthMetrics;
+import com.fab1.backend.service.AuthMetrics.LoginOutcome;
+import com.fab1.backend.service.AuthMetrics.RegistrationOutcome;
 import com.fab1.backend.service.AuthService;
 import com.fab1.backend.service.CustomUserDetailsService;
+import com.fab1.backend.service.LoginThrottle;
+import com.fab1.backend.service.RefreshTokenService;
+import com.fab1.backend.service.RevokedTokenRegistry;
 import jakarta.validation.Valid;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.core.Authentication;
 import reactor.core.publisher.Mono;
 
+import java.net.InetSocketAddress;
+
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "http://localhost:5173")
@@ -23,45 +39,69 @@ public class AuthController {
 
     private final AuthService authService;
     private final CustomUserDetailsService userDetailsService;
+    private final LoginThrottle loginThrottle;
+    private final RefreshTokenService refreshTokenService;
+    private final RevokedTokenRegistry revokedTokenRegistry;
+    private final AuthMetrics authMetrics;
 
     @PostMapping("/login")
-    public Mono<LoginResponse> login(@Valid @RequestBody LoginRequest loginRequest) {
+    public Mono<LoginResponse> login(@Valid @RequestBody LoginRequest loginRequest, ServerHttpRequest request) {
         log.info("Tentative de connexion pour: {}", loginRequest.getUsername());
+        Timer.Sample sample = authMetrics.start();
+
+        // Throttled before any DB lookup or BCrypt
+        long retryAfter = loginThrottle.tryAcquire(loginRequest.getUsername(), clientAddress(request));
+        if (retryAfter > 0) {
+            log.warn("Connexion limitée pour: {}", loginRequest.getUsername());
+            authMetrics.login(sample, LoginOutcome.THROTTLED);
+            return Mono.error(new TooManyLoginAttemptsException(retryAfter));
+        }
 
         return authService.authenticate(loginRequest)
-                .onErrorResume(this::handleAuthenticationError)
-                .doOnSuccess(response -> {
-                    if (response.isSuccess()) {
-                        log.info("Connexion réussie pour: {}", loginRequest.getUsername());
-                    } else {
-                        log.warn("Connexion échouée pour: {}", loginRequest.getUsername());
-                    }
-                });
+                .doOnSuccess(response -> authMetrics.login(sample, LoginOutcome.SUCCESS))
+                .doOnError(error -> authMetrics.login(sample, loginOutcome(error)))
+                // Unknown user or wrong password, without a stack trace (the exception has none)
+                .doOnError(InvalidCredentialsException.class, error ->
+                        log.warn("Connexion échouée pour {}: {}", loginRequest.getUsername(), error.getMessage()))
+                // Expected failures (AuthException) are answered by GlobalExceptionHandler
+                .doOnSuccess(response -> log.info("Connexion réussie pour: {}", loginRequest.getUsername()));
     }
 
     @PostMapping("/register")
     public Mono<LoginResponse> register(@Valid @RequestBody LoginRequest registerRequest) {
         log.info("Tentative d'inscription pour: {}", registerRequest.getUsername());
 
-        return authService.createUser(
-                        registerRequest.getUsername(),
-                        registerRequest.getPassword(),
-                        "USER"
-                )
-                .then(authService.authenticate(registerRequest))
-                .onErrorResume(this::handleRegistrationError)
+        Timer.Sample sample = authMetrics.start();
+
+        return authService.register(registerRequest)
+                .doOnSuccess(response -> authMetrics.registration(sample, RegistrationOutcome.SUCCESS))
+                .doOnError(error -> authMetrics.registration(sample, registrationOutcome(error)))
                 .doOnSuccess(response -> log.info("Inscription et connexion réussies pour: {}",
                         registerRequest.getUsername()));
     }
 
+    @PostMapping("/refresh")
+    public Mono<LoginResponse> refresh(@Valid @RequestBody RefreshRequest refreshRequest) {
+        // No BCrypt, no user lookup by name: one indexed query on the token hash
+        return refreshTokenService.refresh(refreshRequest.getRefreshToken())
+                .doOnSuccess(response -> log.debug("Token rafraîchi pour: {}", response.getUsername()));
+    }
+
     @PostMapping("/logout")
-    public Mono<ResponseEntity<LoginResponse>> logout(Authentication authentication) {
+    public Mono<ResponseEntity<LoginResponse>> logout(Authentication authentication,
+                                                      @RequestBody(required = false) RefreshRequest refreshRequest) {
         String username = authentication != null ? authentication.getName() : "anonymous";
         log.info("Déconnexion pour: {}", username);
-        
-        return Mono.just(ResponseEntity.ok(
-                LoginResponse.success(username, null).withMessage("Déconnexion réussie")
-        ));
+
+        Mono<Void> revocation = refreshRequest != null && refreshRequest.getRefreshToken() != null
+                ? refreshTokenService.revoke(refreshRequest.getRefreshToken())
+                : Mono.empty();
+
+        return revocation
+                .then(revokeAccessToken(authentication))
+                .then(Mono.just(ResponseEntity.ok(
+                        LoginResponse.success(username, null).withMessage("Déconnexion réussie")
+                )));
     }
 
     @DeleteMapping("/delete-account")
@@ -70,6 +110,7 @@ public class AuthController {
         log.info("Suppression du compte pour: {}", username);
 
         return userDetailsService.deleteUser(username)
+                .then(revokeAccessToken(authentication))
                 .then(Mono.just(ResponseEntity.ok(
                         LoginResponse.success(username, null).withMessage("Compte supprimé avec succès")
                 )))
@@ -110,28 +151,35 @@ public class AuthController {
                 .doOnSuccess(message -> log.debug("Health check effectué"));
     }
 
-    private Mono<LoginResponse> handleAuthenticationError(Throwable error) {
-        log.error("Erreur d'authentification: {}", error.getMessage());
-
-        if (error.getMessage().contains("Mot de passe incorrect") ||
-                error.getMessage().contains("Utilisateur non trouvé")) {
-            return Mono.just(LoginResponse.failure("Identifiants incorrects"));
+    /**
+     * The token used for this request stops working now instead of at its exp
+     */
+    private Mono<Void> revokeAccessToken(Authentication authentication) {
+        if (authentication != null && authentication.getDetails() instanceof VerifiedToken verified) {
+            return revokedTokenRegistry.revoke(verified);
         }
-
-        return Mono.just(LoginResponse.serverError());
+        return Mono.empty();
     }
 
-    private Mono<LoginResponse> handleRegistrationError(Throwable error) {
-        log.error("Erreur d'inscription: {}", error.getMessage());
-
-        if (error.getMessage().contains("L'utilisateur existe déjà")) {
-            return Mono.just(LoginResponse.failure("Ce nom d'utilisateur est déjà pris"));
+    private static String clientAddress(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null || remoteAddress.getAddress() == null) {
+            return "unknown";
         }
+        return remoteAddress.getAddress().getHostAddress();
+    }
 
-        if (error.getMessage().contains("Rôle non trouvé")) {
-            return Mono.just(LoginResponse.failure("Erreur de configuration des rôles"));
+    private static LoginOutcome loginOutcome(Throwable error) {
+        if (error instanceof HashingCapacityExceededException) {
+            return LoginOutcome.OVERLOADED;
         }
+        return error instanceof InvalidCredentialsException ? LoginOutcome.BAD_CREDENTIALS : LoginOutcome.ERROR;
+    }
 
-        return Mono.just(LoginResponse.serverError());
+    private static RegistrationOutcome registrationOutcome(Throwable error) {
+        if (error instanceof HashingCapacityExceededException) {
+            return RegistrationOutcome.OVERLOADED;
+        }
+        return error instanceof UserAlreadyExistsException ? RegistrationOutcome.DUPLICATE : RegistrationOutcome.ERROR;
     }
 }
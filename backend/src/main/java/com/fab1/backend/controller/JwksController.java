@@ -0,0 +1,35 @@
+package com.fab1.backend.controller;
+
+import com.fab1.backend.service.SigningKeyRing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Public verification keys, so other services can check our tokens locally.
+ * The document is pre-serialized by the key ring; the ETag lets caches revalidate with a 304.
+ */
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final SigningKeyRing keyRing;
+
+    @Value("${jwt.keys.jwks-max-age:300}")
+    private long maxAgeSeconds;
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<String>> jwks() {
+        return Mono.just(ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic())
+                .eTag(keyRing.getJwksEtag())
+                .body(keyRing.getJwks()));
+    }
+}
@@ -0,0 +1,20 @@
+package com.fab1.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Summary of a bulk admin operation: usernames sent, users actually changed,
+ * and names that matched no user
+ */
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkOperationResult {
+    String operation;
+    int requested;
+    int affected;
+    int notFound;
+    Integer roleAssignments;
+}
@@ -0,0 +1,20 @@
+package com.fab1.backend.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Users targeted by a bulk admin operation; roles only for the role reassignment
+ */
+@Value
+public class BulkUserRequest {
+
+    @NotEmpty(message = "La liste des utilisateurs est obligatoire")
+    @Size(max = 10000, message = "10000 utilisateurs au maximum par requête")
+    List<String> usernames;
+
+    List<String> roles;
+}
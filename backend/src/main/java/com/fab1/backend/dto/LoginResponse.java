@@ -13,17 +13,18 @@ public class LoginResponse {
     String message;
     String username;
     String token;
+    String refreshToken;
 
     public static LoginResponse success(String username, String token) {
-        return new LoginResponse(true, "Connexion réussie", username, token);
+        return new LoginResponse(true, "Connexion réussie", username, token, null);
 
     }
 
     public static LoginResponse failure(String message) {
-        return new LoginResponse(false,message,null,null);
+        return new LoginResponse(false,message,null,null,null);
     }
 
     public static LoginResponse serverError() {
-        return new LoginResponse(false, "Erreur serveur", null, null);
+        return new LoginResponse(false, "Erreur serveur", null, null, null);
     }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.fab1.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Value;
+
+@Value
+public class RefreshRequest {
+
+    @NotBlank(message = "Le refresh token est obligatoire")
+    String refreshToken;
+
+    @JsonCreator
+    public RefreshRequest(@JsonProperty("refreshToken") String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
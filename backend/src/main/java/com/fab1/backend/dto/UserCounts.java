@@ -0,0 +1,17 @@
+package com.fab1.backend.dto;
+
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * User totals for the admin dashboard. byRole counts users holding each role,
+ * so a user with two roles appears in both.
+ */
+@Value
+public class UserCounts {
+    long total;
+    long enabled;
+    long disabled;
+    Map<String, Long> byRole;
+}
@@ -0,0 +1,37 @@
+package com.fab1.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Streamed back by the bulk import: one per input row, in input order,
+ * then a single SUMMARY element with the totals
+ */
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportResult {
+
+    public enum Status { CREATED, DUPLICATE, INVALID, ERROR, SUMMARY }
+
+    Status status;
+    Long row;
+    String username;
+    String message;
+
+    Long total;
+    Long created;
+    Long duplicates;
+    Long invalid;
+    Long failed;
+    Long durationMs;
+
+    public static UserImportResult of(long row, String username, Status status) {
+        return UserImportResult.builder().row(row).username(username).status(status).build();
+    }
+
+    public static UserImportResult rejected(long row, String username, Status status, String message) {
+        return UserImportResult.builder().row(row).username(username).status(status).message(message).build();
+    }
+}
@@ -0,0 +1,19 @@
+package com.fab1.backend.dto;
+
+import lombok.Value;
+import lombok.With;
+
+/**
+ * One account of a bulk import (NDJSON object or CSV line).
+ * Either password (plain, hashed during import) or passwordHash (BCrypt, stored as is).
+ */
+@Value
+@With
+public class UserImportRow {
+
+    String username;
+    String password;
+    String passwordHash;
+    String role;
+    Boolean enabled;
+}
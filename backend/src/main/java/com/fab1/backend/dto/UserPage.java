@@ -0,0 +1,17 @@
+package com.fab1.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * A page of the admin listing. nextCursor is opaque: pass it back as "after"
+ * to get the following page; absent on the last page.
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserPage {
+    List<UserSummary> users;
+    String nextCursor;
+}
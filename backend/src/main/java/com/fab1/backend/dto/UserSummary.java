@@ -0,0 +1,18 @@
+package com.fab1.backend.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * One user in the admin listing and export (never the password hash)
+ */
+@Value
+@Builder
+public class UserSummary {
+    Long id;
+    String username;
+    boolean enabled;
+    List<String> roles;
+}
@@ -0,0 +1,30 @@
+package com.fab1.backend.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Expected failure on the auth path (bad credentials, throttling, overload...).
+ * These are part of normal traffic, attack traffic included, so they carry no
+ * stack trace and the fixed ones are shared instances. The message is for the
+ * logs; the client only ever sees clientMessage, with the given status.
+ */
+@Getter
+public abstract class AuthException extends RuntimeException {
+
+    private final HttpStatus status;
+    private final String clientMessage;
+
+    protected AuthException(String message, HttpStatus status, String clientMessage) {
+        super(message, null, false, false);
+        this.status = status;
+        this.clientMessage = clientMessage;
+    }
+
+    /**
+     * Seconds for a Retry-After header, 0 for none
+     */
+    public long getRetryAfterSeconds() {
+        return 0;
+    }
+}
@@ -0,0 +1,21 @@
+package com.fab1.backend.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when the password hashing pool and its wait queue are both full
+ */
+public class HashingCapacityExceededException extends AuthException {
+
+    public static final HashingCapacityExceededException INSTANCE = new HashingCapacityExceededException();
+
+    private HashingCapacityExceededException() {
+        super("Capacité de hachage saturée", HttpStatus.SERVICE_UNAVAILABLE,
+                "Service momentanément surchargé, réessayez plus tard");
+    }
+
+    @Override
+    public long getRetryAfterSeconds() {
+        return 1;
+    }
+}
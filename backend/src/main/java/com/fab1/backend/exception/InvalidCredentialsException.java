@@ -0,0 +1,19 @@
+package com.fab1.backend.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Unknown user or wrong password. Both give the client the same answer; they are
+ * still told apart in the logs. Answered with 200 and success=false, as the SPA expects.
+ */
+public class InvalidCredentialsException extends AuthException {
+
+    public static final InvalidCredentialsException UNKNOWN_USER =
+            new InvalidCredentialsException("Utilisateur non trouvé");
+    public static final InvalidCredentialsException WRONG_PASSWORD =
+            new InvalidCredentialsException("Mot de passe incorrect");
+
+    private InvalidCredentialsException(String message) {
+        super(message, HttpStatus.OK, "Identifiants incorrects");
+    }
+}
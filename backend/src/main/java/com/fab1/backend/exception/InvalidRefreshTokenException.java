@@ -0,0 +1,13 @@
+package com.fab1.backend.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Refresh token unknown, expired, already rotated (reuse) or owned by a disabled account
+ */
+public class InvalidRefreshTokenException extends AuthException {
+
+    public InvalidRefreshTokenException(String message) {
+        super(message, HttpStatus.UNAUTHORIZED, "Session expirée, veuillez vous reconnecter");
+    }
+}
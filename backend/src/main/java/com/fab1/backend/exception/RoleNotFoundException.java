@@ -0,0 +1,13 @@
+package com.fab1.backend.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Role missing from the catalog even after a reload: a seeding/configuration problem
+ */
+public class RoleNotFoundException extends AuthException {
+
+    public RoleNotFoundException(String roleName) {
+        super("Rôle non trouvé: " + roleName, HttpStatus.OK, "Erreur de configuration des rôles");
+    }
+}
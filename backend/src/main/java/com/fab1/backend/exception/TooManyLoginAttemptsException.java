@@ -0,0 +1,22 @@
+package com.fab1.backend.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Login refused by the throttle before any lookup or hash was done
+ */
+public class TooManyLoginAttemptsException extends AuthException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyLoginAttemptsException(long retryAfterSeconds) {
+        super("Trop de tentatives de connexion", HttpStatus.TOO_MANY_REQUESTS,
+                "Trop de tentatives, réessayez plus tard");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,15 @@
+package com.fab1.backend.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Registration with a username that is already taken (unique index violation)
+ */
+public class UserAlreadyExistsException extends AuthException {
+
+    public static final UserAlreadyExistsException INSTANCE = new UserAlreadyExistsException();
+
+    private UserAlreadyExistsException() {
+        super("L'utilisateur existe déjà", HttpStatus.OK, "Ce nom d'utilisateur est déjà pris");
+    }
+}
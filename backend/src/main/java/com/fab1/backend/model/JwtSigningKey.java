@@ -0,0 +1,29 @@
+package com.fab1.backend.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Stored form of a signing key: public key as Base64 X.509, private key as
+ * Base64 PKCS#8 encrypted with AES-GCM. Times are epoch milliseconds; expires_at
+ * stays null until a newer key takes over. generation is unique and increases with
+ * each rotation.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("jwt_signing_keys")
+public class JwtSigningKey {
+
+    @Id
+    private String kid;
+
+    private String algorithm;
+    private String publicKey;
+    private String privateKey;
+    private Long activatesAt;
+    private Long expiresAt;
+    private Long generation;
+}
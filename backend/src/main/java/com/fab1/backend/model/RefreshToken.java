@@ -0,0 +1,35 @@
+package com.fab1.backend.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Opaque refresh token, stored as a SHA-256 hash. Tokens issued from the same
+ * login share a family id, so reuse of a rotated token can revoke the whole chain.
+ * Times are epoch milliseconds.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("refresh_tokens")
+public class RefreshToken {
+
+    @Id
+    private Long id;
+
+    private Long userId;
+    private String familyId;
+    private String tokenHash;
+    private Long expiresAt;
+    private Long rotatedAt;
+
+    public boolean isRotated() {
+        return rotatedAt != null;
+    }
+
+    public boolean isExpired(long now) {
+        return expiresAt <= now;
+    }
+}
@@ -0,0 +1,14 @@
+package com.fab1.backend.model;
+
+import lombok.Value;
+
+/**
+ * A stored refresh token together with its owner (roles included), as read by
+ * the single lookup done on /api/auth/refresh
+ */
+@Value
+public class RefreshTokenGrant {
+
+    RefreshToken token;
+    User user;
+}
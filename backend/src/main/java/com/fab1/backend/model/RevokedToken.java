@@ -0,0 +1,23 @@
+package com.fab1.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Id (jti) of an access token revoked before its expiry. The row is useless
+ * once expires_at (epoch ms, the token's exp) has passed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("revoked_tokens")
+public class RevokedToken {
+
+    @Id
+    private String jti;
+
+    private Long expiresAt;
+}
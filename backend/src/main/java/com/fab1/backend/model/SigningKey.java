@@ -0,0 +1,51 @@
+package com.fab1.backend.model;
+
+import lombok.Value;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.UUID;
+
+/**
+ * ES256 (P-256) key pair identified by its kid. It signs from activatesAt until a
+ * newer key activates, and verifies until expiresAt (null: no successor yet).
+ */
+@Value
+public class SigningKey {
+
+    public static final String ALGORITHM = "ES256";
+
+    String kid;
+    ECPrivateKey privateKey;
+    ECPublicKey publicKey;
+    long activatesAt;
+    Long expiresAt;
+
+    public static SigningKey generate(long activatesAt) {
+        return generate(UUID.randomUUID().toString(), activatesAt);
+    }
+
+    public static SigningKey generate(String kid, long activatesAt) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            KeyPair keyPair = generator.generateKeyPair();
+            return new SigningKey(kid, (ECPrivateKey) keyPair.getPrivate(), (ECPublicKey) keyPair.getPublic(),
+                    activatesAt, null);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Impossible de générer une clé ES256", e);
+        }
+    }
+
+    public boolean isActive(long now) {
+        return activatesAt <= now;
+    }
+
+    public boolean isExpired(long now) {
+        return expiresAt != null && expiresAt <= now;
+    }
+}
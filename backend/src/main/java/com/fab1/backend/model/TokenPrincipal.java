@@ -0,0 +1,15 @@
+package com.fab1.backend.model;
+
+import lombok.Value;
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+/**
+ * Lightweight principal built straight from verified JWT claims (stateless mode),
+ * no database row behind it
+ */
+@Value
+public class TokenPrincipal implements AuthenticatedPrincipal {
+
+    String name;
+    Long userId;
+}
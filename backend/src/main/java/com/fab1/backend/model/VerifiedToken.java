@@ -0,0 +1,55 @@
+package com.fab1.backend.model;
+
+import io.jsonwebtoken.Claims;
+import lombok.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Result of a single signature check + parse of a JWT.
+ * Everything the request pipeline needs is read once from the claims and kept here.
+ */
+@Value
+public class VerifiedToken {
+
+    String tokenId;
+    String subject;
+    List<String> roles;
+    Long userId;
+    Instant expiresAt;
+
+    public static VerifiedToken from(Claims claims) {
+        Object rawUserId = claims.get("userId");
+        return new VerifiedToken(
+                claims.getId(),
+                claims.getSubject(),
+                parseRoles(claims.get("roles", String.class)),
+                rawUserId instanceof Number number ? number.longValue() : null,
+                claims.getExpiration().toInstant()
+        );
+    }
+
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return roles.stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+    }
+
+    private static List<String> parseRoles(String roles) {
+        if (roles == null || roles.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(roles.split(","))
+                .map(String::trim)
+                .filter(role -> !role.isEmpty())
+                .toList();
+    }
+}
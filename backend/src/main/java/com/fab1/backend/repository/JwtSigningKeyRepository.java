@@ -0,0 +1,30 @@
+package com.fab1.backend.repository;
+
+import com.fab1.backend.model.JwtSigningKey;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface JwtSigningKeyRepository extends ReactiveCrudRepository<JwtSigningKey, String> {
+
+    // kid is assigned by us, save() would try an UPDATE. A generation already taken fails with DuplicateKeyException
+    @Modifying
+    @Query("INSERT INTO jwt_signing_keys (kid, algorithm, public_key, private_key, activates_at, generation) " +
+            "VALUES (:kid, :algorithm, :publicKey, :privateKey, :activatesAt, :generation)")
+    Mono<Integer> insert(String kid, String algorithm, String publicKey, String privateKey, long activatesAt,
+                         long generation);
+
+    /**
+     * Keys without a successor so far, other than successorKid, stop verifying at expiresAt
+     */
+    @Modifying
+    @Query("UPDATE jwt_signing_keys SET expires_at = :expiresAt WHERE expires_at IS NULL AND kid <> :successorKid")
+    Mono<Integer> retireCurrent(String successorKid, long expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM jwt_signing_keys WHERE expires_at <= :now")
+    Mono<Integer> deleteExpired(long now);
+}
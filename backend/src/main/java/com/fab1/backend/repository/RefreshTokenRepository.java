@@ -0,0 +1,27 @@
+package com.fab1.backend.repository;
+
+import com.fab1.backend.model.RefreshToken;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface RefreshTokenRepository extends ReactiveCrudRepository<RefreshToken, Long>, RefreshTokenRepositoryCustom {
+
+    /**
+     * Only succeeds (returns 1) for the first caller, a concurrent second use sees 0
+     */
+    @Modifying
+    @Query("UPDATE refresh_tokens SET rotated_at = :now WHERE id = :id AND rotated_at IS NULL")
+    Mono<Integer> markRotated(Long id, long now);
+
+    @Modifying
+    @Query("DELETE FROM refresh_tokens WHERE family_id = :familyId")
+    Mono<Integer> deleteFamily(String familyId);
+
+    @Modifying
+    @Query("DELETE FROM refresh_tokens WHERE expires_at < :now LIMIT :limit")
+    Mono<Integer> deleteExpired(long now, int limit);
+}
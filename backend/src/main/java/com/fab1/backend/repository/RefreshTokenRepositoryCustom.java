@@ -0,0 +1,12 @@
+package com.fab1.backend.repository;
+
+import com.fab1.backend.model.RefreshTokenGrant;
+import reactor.core.publisher.Mono;
+
+public interface RefreshTokenRepositoryCustom {
+
+    /**
+     * Refresh token, its owner and the owner's roles in one indexed lookup (token_hash is unique)
+     */
+    Mono<RefreshTokenGrant> findGrantByTokenHash(String tokenHash);
+}
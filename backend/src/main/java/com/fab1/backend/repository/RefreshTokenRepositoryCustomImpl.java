@@ -0,0 +1,84 @@
+package com.fab1.backend.repository;
+
+import com.fab1.backend.model.RefreshToken;
+import com.fab1.backend.model.RefreshTokenGrant;
+import com.fab1.backend.model.Role;
+import com.fab1.backend.model.User;
+import com.fab1.backend.service.RoleCatalog;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class RefreshTokenRepositoryCustomImpl implements RefreshTokenRepositoryCustom {
+
+    private static final String FIND_GRANT = """
+            SELECT rt.id, rt.user_id, rt.family_id, rt.token_hash, rt.expires_at, rt.rotated_at,
+                   u.username, u.enabled, ur.role_id
+            FROM refresh_tokens rt
+            JOIN users u ON u.id = rt.user_id
+            LEFT JOIN user_roles ur ON ur.user_id = u.id
+            WHERE rt.token_hash = :tokenHash
+            """;
+
+    private final DatabaseClient databaseClient;
+    private final RoleCatalog roleCatalog;
+
+    @Override
+    public Mono<RefreshTokenGrant> findGrantByTokenHash(String tokenHash) {
+        return databaseClient.sql(FIND_GRANT)
+                .bind("tokenHash", tokenHash)
+                .map(GrantRow::from)
+                .all()
+                .collectList()
+                .flatMap(rows -> rows.isEmpty() ? Mono.empty() : Mono.just(toGrant(rows)));
+    }
+
+    private RefreshTokenGrant toGrant(List<GrantRow> rows) {
+        GrantRow first = rows.get(0);
+        Set<Role> roles = new HashSet<>();
+        for (GrantRow row : rows) {
+            if (row.roleId() != null) {
+                roleCatalog.findById(row.roleId()).ifPresent(roles::add);
+            }
+        }
+
+        RefreshToken token = RefreshToken.builder()
+                .id(first.id())
+                .userId(first.userId())
+                .familyId(first.familyId())
+                .tokenHash(first.tokenHash())
+                .expiresAt(first.expiresAt())
+                .rotatedAt(first.rotatedAt())
+                .build();
+        User user = User.builder()
+                .id(first.userId())
+                .username(first.username())
+                .enabled(Boolean.TRUE.equals(first.enabled()))
+                .roles(roles)
+                .build();
+        return new RefreshTokenGrant(token, user);
+    }
+
+    private record GrantRow(Long id, Long userId, String familyId, String tokenHash, Long expiresAt,
+                            Long rotatedAt, String username, Boolean enabled, Long roleId) {
+
+        static GrantRow from(Readable row) {
+            return new GrantRow(
+                    row.get("id", Long.class),
+                    row.get("user_id", Long.class),
+                    row.get("family_id", String.class),
+                    row.get("token_hash", String.class),
+                    row.get("expires_at", Long.class),
+                    row.get("rotated_at", Long.class),
+                    row.get("username", String.class),
+                    row.get("enabled", Boolean.class),
+                    row.get("role_id", Long.class));
+        }
+    }
+}
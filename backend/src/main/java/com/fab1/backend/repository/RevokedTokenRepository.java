@@ -0,0 +1,25 @@
+package com.fab1.backend.repository;
+
+import com.fab1.backend.model.RevokedToken;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface RevokedTokenRepository extends ReactiveCrudRepository<RevokedToken, String> {
+
+    // jti is assigned by us, save() would try an UPDATE
+    @Modifying
+    @Query("INSERT IGNORE INTO revoked_tokens (jti, expires_at) VALUES (:jti, :expiresAt)")
+    Mono<Integer> insertIgnore(String jti, long expiresAt);
+
+    @Query("SELECT jti, expires_at FROM revoked_tokens WHERE expires_at > :now")
+    Flux<RevokedToken> findActive(long now);
+
+    @Modifying
+    @Query("DELETE FROM revoked_tokens WHERE expires_at <= :now")
+    Mono<Integer> deleteExpired(long now);
+}
@@ -6,7 +6,7 @@ import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Mono;
 
 @Repository
-public interface RoleRepository extends ReactiveCrudRepository<Role, Long> {
+public interface RoleRepository extends ReactiveCrudRepository<Role, Long>, RoleRepositoryCustom {
     Mono<Role> findByName(String name);
     Mono<Boolean> existsByName(String name);
 }
\ No newline at end of file
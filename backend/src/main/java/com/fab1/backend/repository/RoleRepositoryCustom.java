@@ -0,0 +1,15 @@
+package com.fab1.backend.repository;
+
+import com.fab1.backend.model.Role;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface RoleRepositoryCustom {
+
+    /**
+     * One multi-row INSERT IGNORE: roles whose name already exists are left as they are.
+     * Returns the number of roles inserted.
+     */
+    Mono<Long> insertAllIgnoringDuplicates(List<Role> roles);
+}
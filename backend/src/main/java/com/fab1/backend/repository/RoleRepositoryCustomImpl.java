@@ -0,0 +1,37 @@
+package com.fab1.backend.repository;
+
+import com.fab1.backend.model.Role;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.StringJoiner;
+
+@RequiredArgsConstructor
+public class RoleRepositoryCustomImpl implements RoleRepositoryCustom {
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Mono<Long> insertAllIgnoringDuplicates(List<Role> roles) {
+        if (roles.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 0; i < roles.size(); i++) {
+            values.add("(:name" + i + ", :description" + i + ")");
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(
+                "INSERT IGNORE INTO roles (name, description) VALUES " + values);
+        for (int i = 0; i < roles.size(); i++) {
+            Role role = roles.get(i);
+            spec = spec.bind("name" + i, role.getName());
+            spec = role.getDescription() != null
+                    ? spec.bind("description" + i, role.getDescription())
+                    : spec.bindNull("description" + i, String.class);
+        }
+        return spec.fetch().rowsUpdated();
+    }
+}
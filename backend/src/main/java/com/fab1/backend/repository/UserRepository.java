@@ -1,12 +1,27 @@
 package com.fab1.backend.repository;
 
 import com.fab1.backend.model.User;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+
 @Repository
-public interface UserRepository extends ReactiveCrudRepository<User, Long> {
+public interface UserRepository extends ReactiveCrudRepository<User, Long>, UserRepositoryCustom {
     Mono<User> findByUsername(String username);
     Mono<Boolean> existsByUsername(String username);
+
+    @Query("SELECT username FROM users WHERE username IN (:usernames)")
+    Flux<String> findExistingUsernames(Collection<String> usernames);
+
+    @Query("SELECT enabled FROM users WHERE id = :id")
+    Mono<Boolean> findEnabledById(Long id);
+
+    @Modifying
+    @Query("UPDATE users SET password = :password WHERE id = :id")
+    Mono<Integer> updatePassword(Long id, String password);
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.fab1.backend.repository;
+
+import com.fab1.backend.model.Role;
+import com.fab1.backend.model.User;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Queries that deal with users and their user_roles rows together,
+ * which the derived ReactiveCrudRepository methods can't do (roles is @Transient)
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Load a user with all of its roles in a single joined query
+     */
+    Mono<User> findByUsernameWithRoles(String username);
+
+    /**
+     * Keyset page in id order: users with id > afterId, roles included, no password.
+     * Served by the primary key whatever the offset.
+     */
+    Flux<User> findPageAfterId(long afterId, int limit);
+
+    /**
+     * Keyset page of the users whose name starts with prefix, in username order, after
+     * afterUsername: a range scan on the unique username index, no sort
+     */
+    Flux<User> findPageByUsernamePrefix(String prefix, String afterUsername, int limit);
+
+    /**
+     * Insert the user and its role assignments (one multi-row insert) in one transaction
+     */
+    Mono<User> insertWithRoles(User user);
+
+    /**
+     * Bulk import and startup seed: one multi-row INSERT IGNORE for the users and one
+     * for their roles, in one transaction. Usernames that already exist (or repeat within the batch)
+     * are skipped; only the users actually inserted are returned, with their ids.
+     */
+    Flux<User> insertAllIgnoringDuplicates(List<User> users);
+
+    /**
+     * Delete the user's role assignments and then the user, in one transaction
+     */
+    Mono<Void> deleteWithRoles(Long userId);
+
+    /**
+     * Number of users per enabled flag (GROUP BY enabled), for the counter reconciliation
+     */
+    Mono<Map<Boolean, Long>> countByEnabled();
+
+    /**
+     * Number of users per role id (GROUP BY role_id on user_roles)
+     */
+    Mono<Map<Long, Long>> countByRoleId();
+
+    /**
+     * Bulk enable/disable. Like the two below: one transaction that locks the named
+     * users (one SELECT ... FOR UPDATE), then changes them all with set-based statements
+     * on their ids, and returns the users matched as they were before the change
+     * (id, username, enabled, roles; no password).
+     */
+    Mono<List<User>> updateEnabledByUsernames(Collection<String> usernames, boolean enabled);
+
+    /**
+     * Also removes their user_roles rows; refresh tokens go with the ON DELETE CASCADE
+     */
+    Mono<List<User>> deleteAllByUsernamesWithRoles(Collection<String> usernames);
+
+    /**
+     * The users end up with exactly these roles (previous assignments removed)
+     */
+    Mono<List<User>> replaceRolesByUsernames(Collection<String> usernames, Set<Role> roles);
+}
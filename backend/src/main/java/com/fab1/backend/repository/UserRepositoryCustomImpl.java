@@ -0,0 +1,428 @@
+package com.fab1.backend.repository;
+
+import com.fab1.backend.model.Role;
+import com.fab1.backend.model.User;
+import com.fab1.backend.service.RoleCatalog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Readable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+@Slf4j
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final String FIND_WITH_ROLES = """
+            SELECT u.id, u.username, u.password, u.enabled, ur.role_id
+            FROM users u
+            LEFT JOIN user_roles ur ON ur.user_id = u.id
+            WHERE u.username = :username
+            """;
+
+    // Roles folded into the row so LIMIT counts users, not (user, role) pairs
+    private static final String PAGE_COLUMNS = """
+            SELECT u.id, u.username, u.enabled,
+                   (SELECT GROUP_CONCAT(ur.role_id) FROM user_roles ur WHERE ur.user_id = u.id) AS role_ids
+            FROM users u
+            """;
+
+    private static final String PAGE_AFTER_ID = PAGE_COLUMNS + """
+            WHERE u.id > :afterId
+            ORDER BY u.id
+            LIMIT :limit
+            """;
+
+    private static final String PAGE_BY_PREFIX = PAGE_COLUMNS + """
+            WHERE u.username LIKE :prefix AND u.username > :afterUsername
+            ORDER BY u.username
+            LIMIT :limit
+            """;
+
+    private static final String LOCK_BY_USERNAMES = PAGE_COLUMNS + """
+            WHERE u.username IN (:usernames)
+            FOR UPDATE
+            """;
+
+    private static final String INSERT_ROLES_FOR_USERS = """
+            INSERT INTO user_roles (user_id, role_id)
+            SELECT u.id, r.id FROM users u CROSS JOIN roles r
+            WHERE u.id IN (:userIds) AND r.id IN (:roleIds)
+            """;
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final RoleCatalog roleCatalog;
+
+    // One counter per statement, so "queries per login" can be read straight off the metrics
+    private final Counter findWithRolesQueries;
+    private final Counter userInserts;
+    private final Counter userRoleInserts;
+    private final Counter userDeletes;
+    private final Counter pageQueries;
+    private final Counter bulkStatements;
+
+    public UserRepositoryCustomImpl(DatabaseClient databaseClient,
+                                    TransactionalOperator transactionalOperator,
+                                    RoleCatalog roleCatalog,
+                                    MeterRegistry meterRegistry) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.roleCatalog = roleCatalog;
+        this.findWithRolesQueries = queryCounter(meterRegistry, "user_with_roles");
+        this.userInserts = queryCounter(meterRegistry, "user_insert");
+        this.userRoleInserts = queryCounter(meterRegistry, "user_roles_insert");
+        this.userDeletes = queryCounter(meterRegistry, "user_delete");
+        this.pageQueries = queryCounter(meterRegistry, "user_page");
+        this.bulkStatements = queryCounter(meterRegistry, "user_bulk");
+    }
+
+    @Override
+    public Mono<User> findByUsernameWithRoles(String username) {
+        return databaseClient.sql(FIND_WITH_ROLES)
+                .bind("username", username)
+                .map(UserRoleRow::from)
+                .all()
+                .collectList()
+                .doOnSubscribe(s -> findWithRolesQueries.increment())
+                .flatMap(this::toUser);
+    }
+
+    @Override
+    public Flux<User> findPageAfterId(long afterId, int limit) {
+        return databaseClient.sql(PAGE_AFTER_ID)
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(UserPageRow::from)
+                .all()
+                .doOnSubscribe(s -> pageQueries.increment())
+                .map(this::toListedUser);
+    }
+
+    @Override
+    public Flux<User> findPageByUsernamePrefix(String prefix, String afterUsername, int limit) {
+        return databaseClient.sql(PAGE_BY_PREFIX)
+                .bind("prefix", escapeLike(prefix) + "%")
+                .bind("afterUsername", afterUsername)
+                .bind("limit", limit)
+                .map(UserPageRow::from)
+                .all()
+                .doOnSubscribe(s -> pageQueries.increment())
+                .map(this::toListedUser);
+    }
+
+    @Override
+    public Mono<User> insertWithRoles(User user) {
+        Mono<User> insert = databaseClient.sql("INSERT INTO users (username, password, enabled) VALUES (:username, :password, :enabled)")
+                .bind("username", user.getUsername())
+                .bind("password", user.getPassword())
+                .bind("enabled", user.isEnabled())
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .doOnSubscribe(s -> userInserts.increment())
+                .map(id -> User.builder()
+                        .id(id)
+                        .username(user.getUsername())
+                        .password(user.getPassword())
+                        .enabled(user.isEnabled())
+                        .roles(new HashSet<>(user.getRoles()))
+                        .build());
+
+        return insert
+                .flatMap(saved -> insertRoles(saved.getId(), saved.getRoles()).thenReturn(saved))
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Flux<User> insertAllIgnoringDuplicates(List<User> users) {
+        if (users.isEmpty()) {
+            return Flux.empty();
+        }
+
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 0; i < users.size(); i++) {
+            values.add("(:username" + i + ", :password" + i + ", :enabled" + i + ")");
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient
+                .sql("INSERT IGNORE INTO users (username, password, enabled) VALUES " + values)
+                // RETURNING id, username on MariaDB; H2 (tests) answers with its generated keys.
+                // Either way, only the rows actually inserted come back.
+                .filter(statement -> statement.returnGeneratedValues("id", "username"));
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            spec = spec.bind("username" + i, user.getUsername())
+                    .bind("password" + i, user.getPassword())
+                    .bind("enabled" + i, user.isEnabled());
+        }
+
+        // First occurrence of a username wins, like the INSERT IGNORE itself
+        Map<String, User> byUsername = new HashMap<>();
+        users.forEach(user -> byUsername.putIfAbsent(user.getUsername(), user));
+
+        return spec.map(row -> new InsertedRow(row.get("id", Long.class), row.get("username", String.class)))
+                .all()
+                .map(inserted -> {
+                    User source = byUsername.get(inserted.username());
+                    return User.builder()
+                            .id(inserted.id())
+                            .username(source.getUsername())
+                            .password(source.getPassword())
+                            .enabled(source.isEnabled())
+                            .roles(new HashSet<>(source.getRoles()))
+                            .build();
+                })
+                .collectList()
+                .doOnSubscribe(s -> userInserts.increment())
+                .flatMap(inserted -> insertRoles(inserted).thenReturn(inserted))
+                .as(transactionalOperator::transactional)
+                .flatMapIterable(inserted -> inserted);
+    }
+
+    @Override
+    public Mono<Void> deleteWithRoles(Long userId) {
+        return databaseClient.sql("DELETE FROM user_roles WHERE user_id = :userId")
+                .bind("userId", userId)
+                .then()
+                .then(databaseClient.sql("DELETE FROM users WHERE id = :userId")
+                        .bind("userId", userId)
+                        .then())
+                .doOnSubscribe(s -> userDeletes.increment())
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Mono<List<User>> updateEnabledByUsernames(Collection<String> usernames, boolean enabled) {
+        return lockByUsernames(usernames)
+                .flatMap(users -> bulk(users, databaseClient
+                        .sql("UPDATE users SET enabled = :enabled WHERE id IN (:userIds)")
+                        .bind("enabled", enabled)
+                        .bind("userIds", idsOf(users))))
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Mono<List<User>> deleteAllByUsernamesWithRoles(Collection<String> usernames) {
+        return lockByUsernames(usernames)
+                .flatMap(users -> bulk(users, databaseClient
+                        .sql("DELETE FROM user_roles WHERE user_id IN (:userIds)")
+                        .bind("userIds", idsOf(users))))
+                .flatMap(users -> bulk(users, databaseClient
+                        .sql("DELETE FROM users WHERE id IN (:userIds)")
+                        .bind("userIds", idsOf(users))))
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Mono<List<User>> replaceRolesByUsernames(Collection<String> usernames, Set<Role> roles) {
+        List<Long> roleIds = roles.stream().map(Role::getId).toList();
+        return lockByUsernames(usernames)
+                .flatMap(users -> bulk(users, databaseClient
+                        .sql("DELETE FROM user_roles WHERE user_id IN (:userIds)")
+                        .bind("userIds", idsOf(users))))
+                .flatMap(users -> roleIds.isEmpty() ? Mono.just(users) : bulk(users, databaseClient
+                        .sql(INSERT_ROLES_FOR_USERS)
+                        .bind("userIds", idsOf(users))
+                        .bind("roleIds", roleIds)))
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Mono<Map<Boolean, Long>> countByEnabled() {
+        return databaseClient.sql("SELECT enabled, COUNT(*) AS users FROM users GROUP BY enabled")
+                .map(row -> Map.entry(Boolean.TRUE.equals(row.get("enabled", Boolean.class)),
+                        row.get("users", Long.class)))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    @Override
+    public Mono<Map<Long, Long>> countByRoleId() {
+        return databaseClient.sql("SELECT role_id, COUNT(*) AS users FROM user_roles GROUP BY role_id")
+                .map(row -> Map.entry(row.get("role_id", Long.class), row.get("users", Long.class)))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    private Mono<List<User>> lockByUsernames(Collection<String> usernames) {
+        if (usernames.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return databaseClient.sql(LOCK_BY_USERNAMES)
+                .bind("usernames", usernames)
+                .map(UserPageRow::from)
+                .all()
+                .map(this::toListedUser)
+                .collectList()
+                .doOnSubscribe(s -> bulkStatements.increment());
+    }
+
+    /**
+     * Run one set-based statement over the locked users (skipped when none matched)
+     */
+    private Mono<List<User>> bulk(List<User> users, DatabaseClient.GenericExecuteSpec statement) {
+        if (users.isEmpty()) {
+            return Mono.just(users);
+        }
+        return statement.then()
+                .doOnSubscribe(s -> bulkStatements.increment())
+                .thenReturn(users);
+    }
+
+    private static List<Long> idsOf(List<User> users) {
+        return users.stream().map(User::getId).toList();
+    }
+
+    /**
+     * Role assignments of many users in a single multi-row INSERT
+     */
+    private Mono<Void> insertRoles(List<User> users) {
+        List<Long[]> assignments = new ArrayList<>();
+        for (User user : users) {
+            for (Role role : user.getRoles()) {
+                assignments.add(new Long[]{user.getId(), role.getId()});
+            }
+        }
+        if (assignments.isEmpty()) {
+            return Mono.empty();
+        }
+
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 0; i < assignments.size(); i++) {
+            values.add("(:user" + i + ", :role" + i + ")");
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient
+                .sql("INSERT INTO user_roles (user_id, role_id) VALUES " + values);
+        for (int i = 0; i < assignments.size(); i++) {
+            spec = spec.bind("user" + i, assignments.get(i)[0])
+                    .bind("role" + i, assignments.get(i)[1]);
+        }
+        return spec.then()
+                .doOnSubscribe(s -> userRoleInserts.increment());
+    }
+
+    /**
+     * All role assignments of one user in a single multi-row INSERT
+     */
+    private Mono<Void> insertRoles(Long userId, Set<Role> roles) {
+        if (roles.isEmpty()) {
+            return Mono.empty();
+        }
+
+        List<Role> ordered = new ArrayList<>(roles);
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 0; i < ordered.size(); i++) {
+            values.add("(:userId, :role" + i + ")");
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient
+                .sql("INSERT INTO user_roles (user_id, role_id) VALUES " + values)
+                .bind("userId", userId);
+        for (int i = 0; i < ordered.size(); i++) {
+            spec = spec.bind("role" + i, ordered.get(i).getId());
+        }
+        return spec.then()
+                .doOnSubscribe(s -> userRoleInserts.increment());
+    }
+
+    /**
+     * Role rows are resolved through the in-memory catalog; an id it doesn't know
+     * yet (role created since the last refresh) triggers one reload
+     */
+    private Mono<User> toUser(List<UserRoleRow> rows) {
+        if (rows.isEmpty()) {
+            return Mono.empty();
+        }
+        boolean unknownRole = rows.stream()
+                .anyMatch(row -> row.roleId() != null && roleCatalog.findById(row.roleId()).isEmpty());
+        if (unknownRole) {
+            return roleCatalog.refresh().then(Mono.fromCallable(() -> buildUser(rows)));
+        }
+        return Mono.just(buildUser(rows));
+    }
+
+    private User buildUser(List<UserRoleRow> rows) {
+        UserRoleRow first = rows.get(0);
+        Set<Role> roles = new HashSet<>();
+        for (UserRoleRow row : rows) {
+            if (row.roleId() != null) {
+                roleCatalog.findById(row.roleId()).ifPresent(roles::add);
+            }
+        }
+        return User.builder()
+                .id(first.id())
+                .username(first.username())
+                .password(first.password())
+                .enabled(Boolean.TRUE.equals(first.enabled()))
+                .roles(roles)
+                .build();
+    }
+
+    private User toListedUser(UserPageRow row) {
+        Set<Role> roles = new HashSet<>();
+        if (row.roleIds() != null && !row.roleIds().isEmpty()) {
+            for (String roleId : row.roleIds().split(",")) {
+                roleCatalog.findById(Long.valueOf(roleId.trim())).ifPresent(roles::add);
+            }
+        }
+        return User.builder()
+                .id(row.id())
+                .username(row.username())
+                .enabled(Boolean.TRUE.equals(row.enabled()))
+                .roles(roles)
+                .build();
+    }
+
+    /**
+     * The prefix is user input: its %, _ and \ must match literally
+     */
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    private static Counter queryCounter(MeterRegistry meterRegistry, String query) {
+        return Counter.builder("auth.db.queries")
+                .description("Requêtes SQL exécutées par le repository utilisateurs")
+                .tag("query", query)
+                .register(meterRegistry);
+    }
+
+    private record UserRoleRow(Long id, String username, String password, Boolean enabled, Long roleId) {
+
+        static UserRoleRow from(Readable row) {
+            return new UserRoleRow(
+                    row.get("id", Long.class),
+                    row.get("username", String.class),
+                    row.get("password", String.class),
+                    row.get("enabled", Boolean.class),
+                    row.get("role_id", Long.class));
+        }
+    }
+
+    private record UserPageRow(Long id, String username, Boolean enabled, String roleIds) {
+
+        static UserPageRow from(Readable row) {
+            return new UserPageRow(
+                    row.get("id", Long.class),
+                    row.get("username", String.class),
+                    row.get("enabled", Boolean.class),
+                    row.get("role_ids", String.class));
+        }
+    }
+
+    private record InsertedRow(Long id, String username) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.fab1.backend.service;
+
+import com.fab1.backend.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Answers "is this account still allowed in?" for stateless authentication.
+ * Each user id is checked against the database at most once per TTL window, so a
+ * disabled or deleted account is locked out after at most jwt.stateless.status-ttl
+ * (immediately on the node that made the change).
+ */
+@Service
+public class AccountStatusService {
+
+    private final UserRepository userRepository;
+    private final AsyncCache<Long, Boolean> statuses;
+
+    public AccountStatusService(UserRepository userRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${jwt.stateless.status-ttl:60000}") long statusTtl,
+                                @Value("${jwt.stateless.status-max-size:100000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(statusTtl))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, statuses, "auth.account.status");
+    }
+
+    public Mono<Boolean> isActive(Long userId) {
+        // Concurrent misses for the same id share a single query
+        return Mono.fromFuture(statuses.get(userId, (id, executor) ->
+                userRepository.findEnabledById(id)
+                        .defaultIfEmpty(false)
+                        .toFuture()), true);
+    }
+
+    public void markActive(Long userId) {
+        statuses.put(userId, CompletableFuture.completedFuture(true));
+    }
+
+    public void markInactive(Long userId) {
+        statuses.put(userId, CompletableFuture.completedFuture(false));
+    }
+}
@@ -0,0 +1,131 @@
+package com.fab1.backend.service;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the request path: login and registration outcomes, and each stage of
+ * the JWT filter. Every meter is registered up front with a fixed set of tag
+ * values (no usernames, no paths), so recording never allocates or looks anything up.
+ * Percentile histograms are switched on for the whole auth.* prefix in application.properties.
+ */
+@Component
+public class AuthMetrics {
+
+    public enum LoginOutcome { SUCCESS, BAD_CREDENTIALS, THROTTLED, OVERLOADED, ERROR }
+
+    public enum RegistrationOutcome { SUCCESS, DUPLICATE, OVERLOADED, ERROR }
+
+    public enum TokenOutcome { VALID, EXPIRED, INVALID }
+
+    public enum Rejection { REVOKED, INACTIVE, UNKNOWN_USER }
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<LoginOutcome, Timer> loginTimers = new EnumMap<>(LoginOutcome.class);
+    private final Map<RegistrationOutcome, Timer> registrationTimers = new EnumMap<>(RegistrationOutcome.class);
+    private final Map<TokenOutcome, Timer> verifyTimers = new EnumMap<>(TokenOutcome.class);
+    private final Map<Rejection, Counter> rejections = new EnumMap<>(Rejection.class);
+    private final Timer extractTimer;
+    private final Timer statelessPrincipalTimer;
+    private final Timer databasePrincipalTimer;
+    private final Timer passwordMatchTimer;
+    private final Timer passwordMismatchTimer;
+
+    public AuthMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+
+        for (LoginOutcome outcome : LoginOutcome.values()) {
+            loginTimers.put(outcome, Timer.builder("auth.login")
+                    .description("Requêtes de connexion, par issue")
+                    .tag("outcome", tagValue(outcome))
+                    .register(meterRegistry));
+        }
+        for (RegistrationOutcome outcome : RegistrationOutcome.values()) {
+            registrationTimers.put(outcome, Timer.builder("auth.register")
+                    .description("Requêtes d'inscription, par issue")
+                    .tag("outcome", tagValue(outcome))
+                    .register(meterRegistry));
+        }
+        for (TokenOutcome outcome : TokenOutcome.values()) {
+            verifyTimers.put(outcome, Timer.builder("auth.token.verify")
+                    .description("Vérification du JWT (signature, expiration, parse)")
+                    .tag("outcome", tagValue(outcome))
+                    .register(meterRegistry));
+        }
+        for (Rejection reason : Rejection.values()) {
+            rejections.put(reason, Counter.builder("auth.token.rejected")
+                    .description("JWT valides refusés par le filtre")
+                    .tag("reason", tagValue(reason))
+                    .register(meterRegistry));
+        }
+        this.extractTimer = Timer.builder("auth.token.extract")
+                .description("Lecture du header Authorization")
+                .register(meterRegistry);
+        this.statelessPrincipalTimer = Timer.builder("auth.filter.principal")
+                .description("Construction du principal après vérification du token")
+                .tag("mode", "stateless")
+                .register(meterRegistry);
+        this.databasePrincipalTimer = Timer.builder("auth.filter.principal")
+                .description("Construction du principal après vérification du token")
+                .tag("mode", "database")
+                .register(meterRegistry);
+        this.passwordMatchTimer = Timer.builder("auth.password.check")
+                .description("Vérification BCrypt vue par la connexion (attente du pool comprise)")
+                .tag("result", "match")
+                .register(meterRegistry);
+        this.passwordMismatchTimer = Timer.builder("auth.password.check")
+                .description("Vérification BCrypt vue par la connexion (attente du pool comprise)")
+                .tag("result", "mismatch")
+                .register(meterRegistry);
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void login(Timer.Sample sample, LoginOutcome outcome) {
+        sample.stop(loginTimers.get(outcome));
+    }
+
+    public void registration(Timer.Sample sample, RegistrationOutcome outcome) {
+        sample.stop(registrationTimers.get(outcome));
+    }
+
+    public void passwordChecked(long nanos, boolean matches) {
+        (matches ? passwordMatchTimer : passwordMismatchTimer).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void tokenExtracted(long nanos) {
+        extractTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void tokenVerified(long nanos) {
+        verifyTimers.get(TokenOutcome.VALID).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void tokenFailed(long nanos, Throwable error) {
+        TokenOutcome outcome = error instanceof ExpiredJwtException ? TokenOutcome.EXPIRED : TokenOutcome.INVALID;
+        verifyTimers.get(outcome).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void principalResolved(long nanos, boolean stateless) {
+        (stateless ? statelessPrincipalTimer : databasePrincipalTimer).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void tokenRejected(Rejection reason) {
+        rejections.get(reason).increment();
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
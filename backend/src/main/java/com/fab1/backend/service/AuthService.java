@@ -2,13 +2,15 @@ package com.fab1.backend.service;
 
 import com.fab1.backend.dto.LoginRequest;
 import com.fab1.backend.dto.LoginResponse;
+import com.fab1.backend.exception.InvalidCredentialsException;
+import com.fab1.backend.exception.RoleNotFoundException;
+import com.fab1.backend.exception.UserAlreadyExistsException;
 import com.fab1.backend.model.Role;
 import com.fab1.backend.model.User;
-import com.fab1.backend.repository.RoleRepository;
 import com.fab1.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
@@ -18,9 +20,12 @@ import reactor.core.publisher.Mono;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final RoleCatalog roleCatalog;
+    private final PasswordHashingService passwordHashingService;
     private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
+    private final AuthMetrics authMetrics;
+    private final UserCounter userCounter;
 
     public Mono<LoginResponse> authenticate(LoginRequest loginRequest) {
         log.debug("Tentative d'authentification pour: {}", loginRequest.getUsername());
@@ -35,53 +40,82 @@ public class AuthService {
     }
 
     private Mono<User> findUserByUsername(String username) {
-        return userRepository.findByUsername(username)
-                .switchIfEmpty(Mono.error(new RuntimeException("Utilisateur non trouvé")));
+        // One joined query: the user and its roles, needed for the token claims
+        return userRepository.findByUsernameWithRoles(username)
+                .switchIfEmpty(Mono.error(InvalidCredentialsException.UNKNOWN_USER));
     }
 
     private Mono<User> validatePassword(User user, String password) {
-        return Mono.fromCallable(() -> passwordEncoder.matches(password, user.getPassword()))
+        return Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    return passwordHashingService.matches(password, user.getPassword())
+                            .doOnNext(matches -> authMetrics.passwordChecked(System.nanoTime() - start, matches));
+                })
                 .flatMap(matches -> matches
                         ? Mono.just(user)
-                        : Mono.error(new RuntimeException("Mot de passe incorrect")));
+                        : Mono.<User>error(InvalidCredentialsException.WRONG_PASSWORD))
+                .doOnNext(valid -> upgradeHashInBackground(valid, password));
     }
 
+    /**
+     * Stored hash made with another cost than the calibrated one: re-encode it now
+     * that we know the plain password. Runs detached so the login doesn't wait for it.
+     */
+    private void upgradeHashInBackground(User user, String password) {
+        passwordHashingService.rehashIfNeeded(password, user.getPassword())
+                .flatMap(newHash -> userRepository.updatePassword(user.getId(), newHash))
+                .subscribe(
+                        updated -> log.info("Hash du mot de passe recalculé pour: {}", user.getUsername()),
+                        error -> log.warn("Impossible de recalculer le hash pour {}: {}",
+                                user.getUsername(), error.getMessage()));
+    }
+
+    /**
+     * Short-lived access token + a refresh token starting a new rotation family
+     */
     private Mono<LoginResponse> generateTokenForUser(User user) {
-        return jwtService.generateToken(user)
-                .map(token -> LoginResponse.success(user.getUsername(), token));
+        return Mono.zip(jwtService.generateToken(user), refreshTokenService.issue(user))
+                .map(tokens -> LoginResponse.success(user.getUsername(), tokens.getT1())
+                        .withRefreshToken(tokens.getT2()));
+    }
+
+    /**
+     * Register + log in: one BCrypt encode, one insert, and the token is issued
+     * straight from the freshly created user (no reload, no second BCrypt)
+     */
+    public Mono<LoginResponse> register(LoginRequest registerRequest) {
+        return createUser(registerRequest.getUsername(), registerRequest.getPassword(), "USER")
+                .flatMap(this::generateTokenForUser);
     }
 
     public Mono<User> createUser(String username, String password, String roleName) {
         log.debug("Création d'un nouvel utilisateur: {} avec rôle: {}", username, roleName);
 
-        return checkUsernameAvailability(username)
-                .then(findRoleByName(roleName))
+        return findRoleByName(roleName)
                 .flatMap(role -> createAndSaveUser(username, password, role))
+                .doOnNext(userCounter::created)
                 .doOnSuccess(user -> log.info("Utilisateur créé avec succès: {}", username))
                 .doOnError(error -> log.error("Erreur lors de la création de l'utilisateur {}: {}",
                         username, error.getMessage()));
     }
 
-    private Mono<Void> checkUsernameAvailability(String username) {
-        return userRepository.existsByUsername(username)
-                .flatMap(exists -> exists
-                        ? Mono.error(new RuntimeException("L'utilisateur existe déjà"))
-                        : Mono.empty());
-    }
-
     private Mono<Role> findRoleByName(String roleName) {
-        return roleRepository.findByName(roleName)
-                .switchIfEmpty(Mono.error(new RuntimeException("Rôle non trouvé: " + roleName)));
+        // Served from memory, no query on the registration path
+        return roleCatalog.findByNameOrReload(roleName)
+                .switchIfEmpty(Mono.error(new RoleNotFoundException(roleName)));
     }
 
     private Mono<User> createAndSaveUser(String username, String password, Role role) {
-        return Mono.fromCallable(() -> passwordEncoder.encode(password))
+        return passwordHashingService.encode(password)
                 .map(encodedPassword -> User.builder()
                         .username(username)
                         .password(encodedPassword)
                         .enabled(true)
                         .build())
                 .map(user -> user.withRole(role))
-                .flatMap(userRepository::save);
+                // The unique index on username is the availability check: no separate
+                // exists query, and no race between checking and inserting
+                .flatMap(userRepository::insertWithRoles)
+                .onErrorMap(DuplicateKeyException.class, e -> UserAlreadyExistsException.INSTANCE);
     }
 }
\ No newline at end of file
@@ -1,28 +1,92 @@
 package com.fab1.backend.service;
 
+import com.fab1.backend.dto.BulkOperationResult;
+import com.fab1.backend.dto.UserCounts;
 import com.fab1.backend.model.User;
 import com.fab1.backend.model.Role;
 import com.fab1.backend.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ServerWebInputException;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
 @Service
-@RequiredArgsConstructor
 @Slf4j
-public class CustomUserDetailsService implements ReactiveUserDetailsService {
+public class CustomUserDetailsService implements ReactiveUserDetailsService, ReactiveUserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final AccountStatusService accountStatusService;
+    private final RoleCatalog roleCatalog;
+    private final UserCounter userCounter;
+
+    // username (lower-cased, the column collation is case-insensitive) -> user
+    private final AsyncCache<String, User> userCache;
+    private final Timer foundTimer;
+    private final Timer notFoundTimer;
+    private final Timer errorTimer;
+    private final Timer cancelledTimer;
+
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    AccountStatusService accountStatusService,
+                                    RoleCatalog roleCatalog,
+                                    UserCounter userCounter,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${auth.user-cache.max-size:10000}") long maxSize,
+                                    @Value("${auth.user-cache.ttl:30000}") long ttl) {
+        this.userRepository = userRepository;
+        this.accountStatusService = accountStatusService;
+        this.roleCatalog = roleCatalog;
+        this.userCounter = userCounter;
+        this.userCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttl))
+                .recordStats()
+                .buildAsync();
+        this.foundTimer = Timer.builder("auth.user.load")
+                .description("Chargement d'un utilisateur depuis la base (cache miss)")
+                .tag("result", "found")
+                .register(meterRegistry);
+        this.notFoundTimer = Timer.builder("auth.user.load")
+                .description("Chargement d'un utilisateur depuis la base (cache miss)")
+                .tag("result", "not_found")
+                .register(meterRegistry);
+        this.errorTimer = Timer.builder("auth.user.load")
+                .description("Chargement d'un utilisateur depuis la base (cache miss)")
+                .tag("result", "error")
+                .register(meterRegistry);
+        this.cancelledTimer = Timer.builder("auth.user.load")
+                .description("Chargement d'un utilisateur depuis la base (cache miss)")
+                .tag("result", "cancelled")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, userCache, "auth.users");
+    }
 
     @Override
     public Mono<UserDetails> findByUsername(String username) {
         log.debug("Tentative de chargement réactif de l'utilisateur: {}", username);
 
-        return userRepository.findByUsername(username)
+        return loadUser(username)
                 .cast(UserDetails.class)
                 .switchIfEmpty(Mono.error(new UsernameNotFoundException("Utilisateur non trouvé: " + username)))
                 .doOnSuccess(user -> {
@@ -38,10 +102,57 @@ public class CustomUserDetailsService implements ReactiveUserDetailsService {
      */
     public Mono<User> findUserByUsername(String username) {
         log.debug("Récupération de l'utilisateur: {}", username);
-        return userRepository.findByUsername(username)
+        return loadUser(username)
                 .switchIfEmpty(Mono.error(new UsernameNotFoundException("Utilisateur non trouvé: " + username)));
     }
 
+    /**
+     * Store a re-encoded password (hash cost changed), called by the authentication manager
+     */
+    @Override
+    public Mono<UserDetails> updatePassword(UserDetails userDetails, String newPassword) {
+        User user = (User) userDetails;
+        return userRepository.updatePassword(user.getId(), newPassword)
+                .doOnSuccess(updated -> evict(user.getUsername()))
+                .thenReturn(User.builder()
+                        .id(user.getId())
+                        .username(user.getUsername())
+                        .password(newPassword)
+                        .enabled(user.isEnabled())
+                        .roles(user.getRoles())
+                        .build());
+    }
+
+    /**
+     * Cached lookup; concurrent misses for the same username share one query.
+     * Unknown users are not cached (the future completes with null).
+     */
+    private Mono<User> loadUser(String username) {
+        return Mono.fromFuture(userCache.get(cacheKey(username), (key, executor) ->
+                userRepository.findByUsernameWithRoles(username)
+                        .as(this::timed)
+                        .toFuture()), true);
+    }
+
+    private Mono<User> timed(Mono<User> load) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            // Every outcome is recorded: database failures must show up in auth.user.load too
+            return load
+                    .doOnSuccess(user -> sample.stop(user != null ? foundTimer : notFoundTimer))
+                    .doOnError(error -> sample.stop(errorTimer))
+                    .doOnCancel(() -> sample.stop(cancelledTimer));
+        });
+    }
+
+    private void evict(String username) {
+        userCache.synchronous().invalidate(cacheKey(username));
+    }
+
+    private static String cacheKey(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
     /**
      * Alias for getUserByUsername, for compatibility 
      */
@@ -54,9 +165,15 @@ public class CustomUserDetailsService implements ReactiveUserDetailsService {
      */
     public Mono<Void> deleteUser(String username) {
         log.info("Suppression de l'utilisateur: {}", username);
-        return userRepository.findByUsername(username)
+        // With roles: the counter needs them to adjust the per-role totals
+        return userRepository.findByUsernameWithRoles(username)
                 .switchIfEmpty(Mono.error(new RuntimeException("Utilisateur non trouvé")))
-                .flatMap(user -> userRepository.delete(user))
+                .flatMap(user -> userRepository.deleteWithRoles(user.getId())
+                        .doOnSuccess(v -> {
+                            evict(username);
+                            accountStatusService.markInactive(user.getId());
+                            userCounter.deleted(user);
+                        }))
                 .doOnSuccess(v -> log.info("Utilisateur supprimé avec succès: {}", username))
                 .onErrorResume(error -> {
                     log.error("Erreur lors de la suppression de l'utilisateur {}: {}", username, error.getMessage());
@@ -72,10 +189,93 @@ public class CustomUserDetailsService implements ReactiveUserDetailsService {
     }
 
     /**
-     * Count how many users we got in total
+     * Count how many users we got in total, from the in-memory counter (no COUNT(*))
      */
     public Mono<Long> countUsers() {
-        return userRepository.count();
+        return userCounter.counts().map(UserCounts::getTotal);
+    }
+
+    /**
+     * Enable or disable many users in one UPDATE
+     */
+    public Mono<BulkOperationResult> setUsersEnabled(Collection<String> usernames, boolean enabled) {
+        Set<String> requested = distinctUsernames(usernames);
+        log.info("Modification groupée du statut de {} utilisateurs: enabled={}", requested.size(), enabled);
+        return userRepository.updateEnabledByUsernames(requested, enabled)
+                .doOnNext(users -> users.forEach(user -> {
+                    evict(user.getUsername());
+                    userCounter.enabledChanged(user, enabled);
+                    if (enabled) {
+                        accountStatusService.markActive(user.getId());
+                    } else {
+                        accountStatusService.markInactive(user.getId());
+                    }
+                }))
+                .map(users -> summary(enabled ? "enable" : "disable", requested, users).build());
+    }
+
+    /**
+     * Delete many users with their role assignments, in one transaction
+     */
+    public Mono<BulkOperationResult> deleteUsers(Collection<String> usernames) {
+        Set<String> requested = distinctUsernames(usernames);
+        log.info("Suppression groupée de {} utilisateurs", requested.size());
+        return userRepository.deleteAllByUsernamesWithRoles(requested)
+                .doOnNext(users -> users.forEach(user -> {
+                    evict(user.getUsername());
+                    accountStatusService.markInactive(user.getId());
+                    userCounter.deleted(user);
+                }))
+                .map(users -> summary("delete", requested, users).build());
+    }
+
+    /**
+     * Replace the roles of many users. Access tokens already issued keep their
+     * roles claim until they expire (jwt.expiration).
+     */
+    public Mono<BulkOperationResult> assignRoles(Collection<String> usernames, Collection<String> roleNames) {
+        Set<Role> roles = new HashSet<>();
+        for (String roleName : roleNames) {
+            Optional<Role> role = roleCatalog.findByName(roleName);
+            if (role.isEmpty()) {
+                return Mono.error(new ServerWebInputException("Rôle inconnu: " + roleName));
+            }
+            roles.add(role.get());
+        }
+
+        Set<String> requested = distinctUsernames(usernames);
+        log.info("Réattribution groupée des rôles {} à {} utilisateurs", roles, requested.size());
+        return userRepository.replaceRolesByUsernames(requested, roles)
+                .doOnNext(users -> users.forEach(user -> {
+                    evict(user.getUsername());
+                    userCounter.rolesChanged(user, roles);
+                }))
+                .map(users -> summary("assign-roles", requested, users)
+                        .roleAssignments(users.size() * roles.size())
+                        .build());
+    }
+
+    /**
+     * One entry per user: usernames match case-insensitively (collation, cache keys),
+     * so "Alice" and "alice" are one request, not one found and one missing
+     */
+    private static Set<String> distinctUsernames(Collection<String> usernames) {
+        Map<String, String> byKey = new LinkedHashMap<>();
+        for (String username : usernames) {
+            byKey.putIfAbsent(cacheKey(username), username);
+        }
+        return new LinkedHashSet<>(byKey.values());
+    }
+
+    private static BulkOperationResult.BulkOperationResultBuilder summary(String operation,
+                                                                          Set<String> requested,
+                                                                          List<User> affected) {
+        log.info("Opération groupée {}: {} utilisateurs modifiés sur {}", operation, affected.size(), requested.size());
+        return BulkOperationResult.builder()
+                .operation(operation)
+                .requested(requested.size())
+                .affected(affected.size())
+                .notFound(requested.size() - affected.size());
     }
 
     /**
@@ -85,8 +285,16 @@ public class CustomUserDetailsService implements ReactiveUserDetailsService {
         log.info("Modification du statut de l'utilisateur {}: enabled={}", username, enabled);
         return userRepository.findByUsername(username)
                 .switchIfEmpty(Mono.error(new RuntimeException("Utilisateur non trouvé")))
-                .map(user -> user.withEnabled(enabled))
-                .flatMap(userRepository::save)
+                .flatMap(previous -> userRepository.save(previous.withEnabled(enabled))
+                        .doOnNext(saved -> userCounter.enabledChanged(previous, enabled)))
+                .doOnNext(user -> {
+                    evict(username);
+                    if (enabled) {
+                        accountStatusService.markActive(user.getId());
+                    } else {
+                        accountStatusService.markInactive(user.getId());
+                    }
+                })
                 .doOnSuccess(user -> log.info("Statut modifié avec succès pour: {}", username));
     }
 }
@@ -1,38 +1,54 @@
 package com.fab1.backend.service;
 
+import com.fab1.backend.model.SigningKey;
 import com.fab1.backend.model.User;
+import com.fab1.backend.model.VerifiedToken;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
-import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
+/**
+ * Issues and verifies ES256 access tokens. Each token names its key in the kid
+ * header, so anyone holding the public keys from /.well-known/jwks.json can verify it.
+ */
 @Service
 @Slf4j
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private final Long expiration;
+    private final SigningKeyRing keyRing;
 
-    @Value("${jwt.expiration}")
-    private Long expiration;
+    // Built once, immutable and thread-safe: the key is picked per token by kid
+    private final JwtParser jwtParser;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    private final VerifiedTokenCache tokenCache;
+
+    public JwtService(@Value("${jwt.expiration}") Long expiration,
+                      SigningKeyRing keyRing,
+                      VerifiedTokenCache tokenCache) {
+        this.expiration = expiration;
+        this.keyRing = keyRing;
+        this.tokenCache = tokenCache;
+        this.jwtParser = Jwts.parser()
+                .keyLocator(keyRing::locate)
+                .build();
     }
 
     public Mono<String> generateToken(User user) {
-        return Mono.fromCallable(() -> {
+        return keyRing.signingKey()
+                .map(signingKey -> {
                     Map<String, Object> claims = new HashMap<>();
 
                     // Add roles in token
@@ -43,61 +59,62 @@ public class JwtService {
                     claims.put("roles", roles);
                     claims.put("userId", user.getId());
 
-                    return createToken(claims, user.getUsername());
+                    return createToken(claims, user.getUsername(), signingKey);
                 })
                 .doOnSuccess(token -> log.debug("Token JWT généré pour l'utilisateur: {}", user.getUsername()))
                 .doOnError(error -> log.error("Erreur lors de la génération du token pour {}: {}",
                         user.getUsername(), error.getMessage()));
     }
 
-    private String createToken(Map<String, Object> claims, String subject) {
+    private String createToken(Map<String, Object> claims, String subject, SigningKey signingKey) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
+                .header().keyId(signingKey.getKid()).and()
                 .claims(claims)
+                // jti: lets a single token be revoked before it expires
+                .id(UUID.randomUUID().toString())
                 .subject(subject)
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + expiration))
+                .signWith(signingKey.getPrivateKey(), Jwts.SIG.ES256)
                 .compact();
     }
 
-    public Mono<String> extractUsername(String token) {
-        return extractClaims(token)
-                .map(Claims::getSubject);
-    }
-
-    public Mono<String> extractRoles(String token) {
-        return extractClaims(token)
-                .map(claims -> (String) claims.get("roles"));
+    /**
+     * Check signature and expiry once and hand back everything we need from the token.
+     * Errors (bad signature, expired, malformed) come out as an error signal.
+     * When the token cache is on, a token already seen skips the crypto entirely.
+     */
+    public Mono<VerifiedToken> verify(String token) {
+        return Mono.fromCallable(() -> {
+                    VerifiedToken cached = tokenCache.get(token);
+                    if (cached != null) {
+                        return cached;
+                    }
+                    VerifiedToken verified = VerifiedToken.from(extractClaims(token));
+                    tokenCache.put(token, verified);
+                    return verified;
+                })
+                .doOnError(error -> log.debug("Token JWT rejeté: {}", error.getMessage()));
     }
 
-    public Mono<Date> extractExpiration(String token) {
-        return extractClaims(token)
-                .map(Claims::getExpiration);
+    public Mono<String> extractUsername(String token) {
+        return verify(token)
+                .map(VerifiedToken::getSubject);
     }
 
-    private Mono<Claims> extractClaims(String token) {
-        return Mono.fromCallable(() -> {
-                    return Jwts.parser()
-                            .verifyWith(getSigningKey())
-                            .build()
-                            .parseSignedClaims(token)
-                            .getPayload();
-                })
-                .doOnError(error -> log.error("Erreur lors de l'extraction des claims: {}", error.getMessage()));
+    public Mono<List<String>> extractRoles(String token) {
+        return verify(token)
+                .map(VerifiedToken::getRoles);
     }
 
-    public Mono<Boolean> isTokenExpired(String token) {
-        return extractExpiration(token)
-                .map(expiration -> expiration.before(new Date()));
+    public Mono<Date> extractExpiration(String token) {
+        return verify(token)
+                .map(verified -> Date.from(verified.getExpiresAt()));
     }
 
-    public Mono<Boolean> validateToken(String token, String username) {
-        return extractUsername(token)
-                .zipWith(isTokenExpired(token))
-                .map(tuple -> {
-                    String tokenUsername = tuple.getT1();
-                    Boolean expired = tuple.getT2();
-                    return tokenUsername.equals(username) && !expired;
-                });
+    private Claims extractClaims(String token) {
+        return jwtParser.parseSignedClaims(token)
+                .getPayload();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,111 @@
+package com.fab1.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets per username and per client address, checked before the login
+ * does any query or BCrypt. Each bucket is a single AtomicLong (GCRA: the
+ * theoretical arrival time of the next request) updated with CAS, so there is
+ * no lock on the hot path. Idle keys are evicted, and the key count is capped.
+ */
+@Service
+public class LoginThrottle {
+
+    private final Limit usernameLimit;
+    private final Limit addressLimit;
+    private final Cache<String, Bucket> usernameBuckets;
+    private final Cache<String, Bucket> addressBuckets;
+    private final Counter usernameRejections;
+    private final Counter addressRejections;
+
+    public LoginThrottle(MeterRegistry meterRegistry,
+                         @Value("${security.login-throttle.username.capacity:10}") int usernameCapacity,
+                         @Value("${security.login-throttle.username.per-minute:5}") int usernamePerMinute,
+                         @Value("${security.login-throttle.address.capacity:30}") int addressCapacity,
+                         @Value("${security.login-throttle.address.per-minute:20}") int addressPerMinute,
+                         @Value("${security.login-throttle.idle-timeout:600000}") long idleTimeout,
+                         @Value("${security.login-throttle.max-keys:100000}") long maxKeys) {
+        this.usernameLimit = new Limit(usernameCapacity, usernamePerMinute);
+        this.addressLimit = new Limit(addressCapacity, addressPerMinute);
+        this.usernameBuckets = buckets(idleTimeout, maxKeys);
+        this.addressBuckets = buckets(idleTimeout, maxKeys);
+        this.usernameRejections = Counter.builder("auth.login.throttled")
+                .tag("key", "username")
+                .register(meterRegistry);
+        this.addressRejections = Counter.builder("auth.login.throttled")
+                .tag("key", "address")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes one token from both buckets.
+     *
+     * @return 0 when the attempt may proceed, otherwise the seconds to wait before retrying
+     */
+    public long tryAcquire(String username, String clientAddress) {
+        long now = System.nanoTime();
+
+        // Address first: a flood from one client must not drain its victims' username buckets
+        long wait = addressBuckets.get(clientAddress, key -> new Bucket()).tryAcquire(now, addressLimit);
+        if (wait > 0) {
+            addressRejections.increment();
+            return toRetryAfterSeconds(wait);
+        }
+
+        wait = usernameBuckets.get(username.toLowerCase(Locale.ROOT), key -> new Bucket()).tryAcquire(now, usernameLimit);
+        if (wait > 0) {
+            usernameRejections.increment();
+            return toRetryAfterSeconds(wait);
+        }
+        return 0;
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private static Cache<String, Bucket> buckets(long idleTimeout, long maxKeys) {
+        return Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMillis(idleTimeout))
+                .maximumSize(maxKeys)
+                .build();
+    }
+
+    private record Limit(long emissionIntervalNanos, long burstNanos) {
+
+        Limit(int capacity, int perMinute) {
+            this(TimeUnit.MINUTES.toNanos(1) / perMinute,
+                    TimeUnit.MINUTES.toNanos(1) / perMinute * capacity);
+        }
+    }
+
+    private static final class Bucket {
+
+        // Theoretical arrival time (System.nanoTime scale) once the current request is counted
+        private final AtomicLong tat = new AtomicLong(Long.MIN_VALUE);
+
+        long tryAcquire(long now, Limit limit) {
+            while (true) {
+                long current = tat.get();
+                long next = (current == Long.MIN_VALUE ? now : Math.max(current, now)) + limit.emissionIntervalNanos();
+                long wait = next - now - limit.burstNanos();
+                if (wait > 0) {
+                    return wait;
+                }
+                if (tat.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
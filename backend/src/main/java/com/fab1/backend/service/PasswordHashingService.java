@@ -0,0 +1,176 @@
+package com.fab1.backend.service;
+
+import com.fab1.backend.config.CalibratedPasswordEncoder;
+import com.fab1.backend.exception.HashingCapacityExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs every BCrypt encode/matches on a dedicated, bounded pool so the
+ * Netty event loop never blocks on password hashing. When both the workers
+ * and the wait queue are busy, calls fail fast with HashingCapacityExceededException.
+ */
+@Service
+@Slf4j
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Scheduler scheduler;
+
+    private final Timer waitTimer;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+    private final Counter rehashUpgrades;
+    private final Counter rehashDowngrades;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${security.hashing.threads:0}") int threads,
+                                  @Value("${security.hashing.queue-capacity:64}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                hashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.scheduler = Schedulers.fromExecutor(this::execute);
+
+        Gauge.builder("auth.hashing.queue.size", executor, e -> e.getQueue().size())
+                .description("Tâches de hachage en attente")
+                .register(meterRegistry);
+        Gauge.builder("auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Threads de hachage occupés")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("auth.hashing.wait")
+                .description("Temps passé dans la file avant hachage")
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("auth.hashing.duration")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("auth.hashing.duration")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.hashing.rejected")
+                .description("Demandes de hachage refusées (pool saturé)")
+                .register(meterRegistry);
+
+        this.rehashUpgrades = Counter.builder("auth.password.rehash")
+                .tag("direction", "upgrade")
+                .register(meterRegistry);
+        this.rehashDowngrades = Counter.builder("auth.password.rehash")
+                .tag("direction", "downgrade")
+                .register(meterRegistry);
+
+        log.info("Pool de hachage initialisé: {} threads, file de {}", poolSize, queueCapacity);
+    }
+
+    public Mono<String> encode(CharSequence rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword), encodeTimer);
+    }
+
+    public Mono<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    /**
+     * New hash when the stored one was made with a different cost than the
+     * calibrated encoder uses (in either direction), empty otherwise
+     */
+    public Mono<String> rehashIfNeeded(CharSequence rawPassword, String encodedPassword) {
+        if (!passwordEncoder.upgradeEncoding(encodedPassword)) {
+            return Mono.empty();
+        }
+        return encode(rawPassword)
+                .doOnNext(newHash -> {
+                    int from = CalibratedPasswordEncoder.costOf(encodedPassword);
+                    int to = CalibratedPasswordEncoder.costOf(newHash);
+                    (to > from ? rehashUpgrades : rehashDowngrades).increment();
+                });
+    }
+
+    /**
+     * Scheduler backed by the same bounded pool, for Spring Security components
+     * that accept a scheduler instead of calling us directly
+     */
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    private <T> Mono<T> submit(Callable<T> task, Timer hashTimer) {
+        return Mono.defer(() -> {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            try {
+                execute(() -> {
+                    // Subscriber went away while we were queued, don't burn a hash for nothing
+                    if (future.isDone()) {
+                        return;
+                    }
+                    long start = System.nanoTime();
+                    try {
+                        future.complete(task.call());
+                    } catch (Throwable t) {
+                        future.completeExceptionally(t);
+                    } finally {
+                        hashTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                return Mono.error(HashingCapacityExceededException.INSTANCE);
+            }
+            return Mono.fromFuture(future);
+        });
+    }
+
+    private void execute(Runnable task) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                task.run();
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("Pool de hachage saturé ({} en attente)", executor.getQueue().size());
+            throw e;
+        }
+    }
+
+    private static ThreadFactory hashingThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,176 @@
+package com.fab1.backend.service;
+
+import com.fab1.backend.dto.LoginResponse;
+import com.fab1.backend.exception.InvalidRefreshTokenException;
+import com.fab1.backend.model.RefreshToken;
+import com.fab1.backend.model.RefreshTokenGrant;
+import com.fab1.backend.model.User;
+import com.fab1.backend.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Opaque, rotating refresh tokens. The client gets 256 random bits, we only keep
+ * their SHA-256. Refreshing costs one indexed lookup and no password hash; every
+ * refresh rotates the token, and presenting an already rotated one revokes the family.
+ */
+@Service
+@Slf4j
+public class RefreshTokenService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtService jwtService;
+    private final TransactionalOperator transactionalOperator;
+    private final long refreshExpiration;
+    private final int purgeBatchSize;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Counter reuseDetected;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               JwtService jwtService,
+                               TransactionalOperator transactionalOperator,
+                               MeterRegistry meterRegistry,
+                               @Value("${jwt.refresh-expiration:1209600000}") long refreshExpiration,
+                               @Value("${jwt.refresh-purge.batch-size:1000}") int purgeBatchSize) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtService = jwtService;
+        this.transactionalOperator = transactionalOperator;
+        this.refreshExpiration = refreshExpiration;
+        this.purgeBatchSize = purgeBatchSize;
+        this.reuseDetected = Counter.builder("auth.refresh.reuse")
+                .description("Refresh tokens déjà utilisés présentés à nouveau")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Start a new token family for a fresh login
+     */
+    public Mono<String> issue(User user) {
+        return store(user.getId(), UUID.randomUUID().toString());
+    }
+
+    /**
+     * Trade a refresh token for a new access token + a new refresh token of the same family
+     */
+    public Mono<LoginResponse> refresh(String rawToken) {
+        long now = System.currentTimeMillis();
+
+        return refreshTokenRepository.findGrantByTokenHash(hash(rawToken))
+                .switchIfEmpty(Mono.error(new InvalidRefreshTokenException("Refresh token inconnu")))
+                .flatMap(grant -> rotate(grant, now))
+                .as(transactionalOperator::transactional)
+                // Reported once committed: an error inside the transaction would roll back the revocation
+                .flatMap(rotation -> rotation.reused()
+                        ? Mono.error(new InvalidRefreshTokenException("Refresh token déjà utilisé"))
+                        : Mono.just(rotation.response()));
+    }
+
+    /**
+     * Logout: the presented token and everything rotated from the same login stop working
+     */
+    public Mono<Void> revoke(String rawToken) {
+        return refreshTokenRepository.findGrantByTokenHash(hash(rawToken))
+                .flatMap(grant -> refreshTokenRepository.deleteFamily(grant.getToken().getFamilyId()))
+                .then();
+    }
+
+    private Mono<Rotation> rotate(RefreshTokenGrant grant, long now) {
+        RefreshToken token = grant.getToken();
+        User user = grant.getUser();
+
+        if (token.isRotated()) {
+            return revokeOnReuse(token);
+        }
+        if (token.isExpired(now) || !user.isEnabled()) {
+            return Mono.error(new InvalidRefreshTokenException("Refresh token expiré"));
+        }
+
+        return refreshTokenRepository.markRotated(token.getId(), now)
+                .flatMap(updated -> updated == 1
+                        ? Mono.zip(jwtService.generateToken(user), store(user.getId(), token.getFamilyId()))
+                        .map(tokens -> Rotation.rotated(LoginResponse.success(user.getUsername(), tokens.getT1())
+                                .withRefreshToken(tokens.getT2())))
+                        // Lost the race against another use of the same token
+                        : revokeOnReuse(token));
+    }
+
+    private Mono<Rotation> revokeOnReuse(RefreshToken token) {
+        reuseDetected.increment();
+        log.warn("Réutilisation d'un refresh token détectée (famille {}), révocation", token.getFamilyId());
+        return refreshTokenRepository.deleteFamily(token.getFamilyId())
+                .thenReturn(Rotation.REUSED);
+    }
+
+    private Mono<String> store(Long userId, String familyId) {
+        byte[] random = new byte[32];
+        secureRandom.nextBytes(random);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+
+        RefreshToken token = RefreshToken.builder()
+                .userId(userId)
+                .familyId(familyId)
+                .tokenHash(hash(rawToken))
+                .expiresAt(System.currentTimeMillis() + refreshExpiration)
+                .build();
+        return refreshTokenRepository.save(token)
+                .thenReturn(rawToken);
+    }
+
+    /**
+     * Remove expired rows in small batches so the purge never holds long locks
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh-purge.interval:3600000}",
+            initialDelayString = "${jwt.refresh-purge.interval:3600000}")
+    public Mono<Long> purgeExpired() {
+        long now = System.currentTimeMillis();
+        return refreshTokenRepository.deleteExpired(now, purgeBatchSize)
+                .expand(deleted -> deleted == purgeBatchSize
+                        ? refreshTokenRepository.deleteExpired(now, purgeBatchSize)
+                        : Mono.empty())
+                .reduce(0L, (total, deleted) -> total + deleted)
+                .doOnNext(total -> {
+                    if (total > 0) {
+                        log.info("Refresh tokens expirés purgés: {}", total);
+                    }
+                })
+                .doOnError(error -> log.error("Erreur lors de la purge des refresh tokens: {}", error.getMessage()));
+    }
+
+    /**
+     * Outcome of a rotation inside the transaction: the new tokens, or reuse detected
+     * (family already deleted, the caller gets an error after the commit)
+     */
+    private record Rotation(LoginResponse response, boolean reused) {
+
+        static final Rotation REUSED = new Rotation(null, true);
+
+        static Rotation rotated(LoginResponse response) {
+            return new Rotation(response, false);
+        }
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(rawToken.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.fab1.backend.service;
+
+import com.fab1.backend.model.VerifiedToken;
+import com.fab1.backend.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Access tokens revoked before their exp (logout, account deletion).
+ * Persisted in revoked_tokens so every instance and restart sees them, and mirrored
+ * in memory: a Bloom filter answers "not revoked" for almost every request without
+ * touching the DB or allocating, the exact map only settles the filter's hits.
+ * Expired ids are dropped on each refresh, when the filter is rebuilt.
+ */
+@Service
+@Slf4j
+public class RevokedTokenRegistry {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final SchemaMigrator schemaMigrator;
+    private final int expectedInsertions;
+    private final double falsePositiveRate;
+
+    // jti -> exp (epoch ms)
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile TokenIdBloomFilter filter;
+
+    private final Counter falsePositives;
+
+    public RevokedTokenRegistry(RevokedTokenRepository revokedTokenRepository,
+                                SchemaMigrator schemaMigrator,
+                                MeterRegistry meterRegistry,
+                                @Value("${auth.revocation.expected-insertions:100000}") int expectedInsertions,
+                                @Value("${auth.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.schemaMigrator = schemaMigrator;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = TokenIdBloomFilter.create(expectedInsertions, falsePositiveRate);
+
+        Gauge.builder("auth.revoked.tokens", revoked, Map::size)
+                .description("Tokens révoqués encore valides")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("auth.revoked.filter.false-positives")
+                .description("Réponses positives du filtre démenties par l'ensemble exact")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hot path, called for every authenticated request
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+        if (revoked.containsKey(tokenId)) {
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    public Mono<Void> revoke(VerifiedToken token) {
+        if (token.getTokenId() == null || token.isExpired()) {
+            return Mono.empty();
+        }
+        long expiresAt = token.getExpiresAt().toEpochMilli();
+
+        // Effective on this instance right away, the others pick it up on their next refresh
+        remember(token.getTokenId(), expiresAt);
+        return revokedTokenRepository.insertIgnore(token.getTokenId(), expiresAt)
+                .doOnSuccess(inserted -> log.debug("Token révoqué: {}", token.getTokenId()))
+                .then();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        schemaMigrator.migrated().then(refresh()).subscribe();
+    }
+
+    /**
+     * Purge expired rows, merge revocations made by other instances, and rebuild the filter without the expired ids
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation.refresh-interval:60000}",
+            initialDelayString = "${auth.revocation.refresh-interval:60000}")
+    public Mono<Integer> refresh() {
+        long now = System.currentTimeMillis();
+        return revokedTokenRepository.deleteExpired(now)
+                .thenMany(revokedTokenRepository.findActive(now))
+                .doOnNext(token -> revoked.putIfAbsent(token.getJti(), token.getExpiresAt()))
+                .then(Mono.fromSupplier(() -> rebuild(now)))
+                .doOnNext(size -> log.debug("Liste de révocation rechargée: {} tokens", size))
+                .doOnError(error -> log.error("Erreur lors du chargement des tokens révoqués: {}", error.getMessage()));
+    }
+
+    private void remember(String tokenId, long expiresAt) {
+        // Map first: a filter hit must always find the entry
+        revoked.put(tokenId, expiresAt);
+        filter.add(tokenId);
+    }
+
+    private int rebuild(long now) {
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+
+        TokenIdBloomFilter fresh = TokenIdBloomFilter.create(
+                Math.max(expectedInsertions, revoked.size() * 2), falsePositiveRate);
+        revoked.keySet().forEach(fresh::add);
+        filter = fresh;
+        // Ids revoked while we were copying may have landed in the old filter only
+        revoked.keySet().forEach(fresh::add);
+        return revoked.size();
+    }
+}
@@ -0,0 +1,89 @@
+package com.fab1.backend.service;
+
+import com.fab1.backend.model.Role;
+import com.fab1.backend.repository.RoleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory copy of the roles table. The table holds a handful of rows that
+ * almost never change, so registration and authorization read from here
+ * instead of querying it. The snapshot is immutable and swapped atomically.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RoleCatalog {
+
+    private final RoleRepository roleRepository;
+    private final SchemaMigrator schemaMigrator;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        schemaMigrator.migrated().then(refresh()).subscribe();
+    }
+
+    /**
+     * Reload the catalog from the database, on a schedule or on demand (admin endpoint)
+     */
+    @Scheduled(fixedDelayString = "${roles.catalog.refresh-interval:300000}",
+            initialDelayString = "${roles.catalog.refresh-interval:300000}")
+    public Mono<Integer> refresh() {
+        return roleRepository.findAll()
+                .collectList()
+                .map(Snapshot::of)
+                .doOnNext(loaded -> {
+                    snapshot.set(loaded);
+                    log.debug("Catalogue des rôles rechargé: {} rôles", loaded.byName().size());
+                })
+                .map(loaded -> loaded.byName().size())
+                .doOnError(error -> log.error("Erreur lors du chargement des rôles: {}", error.getMessage()));
+    }
+
+    public Optional<Role> findByName(String name) {
+        return Optional.ofNullable(snapshot.get().byName().get(name));
+    }
+
+    public Optional<Role> findById(Long id) {
+        return Optional.ofNullable(snapshot.get().byId().get(id));
+    }
+
+    /**
+     * Lookup by name, reloading once if the role is unknown (created since the last refresh)
+     */
+    public Mono<Role> findByNameOrReload(String name) {
+        return Mono.justOrEmpty(findByName(name))
+                // Looked up again once the reload has swapped the snapshot, not when assembling
+                .switchIfEmpty(Mono.defer(() -> refresh()
+                        .then(Mono.defer(() -> Mono.justOrEmpty(findByName(name))))));
+    }
+
+    public Collection<Role> all() {
+        return snapshot.get().byName().values();
+    }
+
+    private record Snapshot(Map<String, Role> byName, Map<Long, Role> byId) {
+
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of());
+
+        static Snapshot of(List<Role> roles) {
+            return new Snapshot(
+                    roles.stream().collect(Collectors.toUnmodifiableMap(Role::getName, Function.identity())),
+                    roles.stream().collect(Collectors.toUnmodifiableMap(Role::getId, Function.identity())));
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package com.fab1.backend.service;
+
+import com.fab1.backend.config.MigrationProperties;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.r2dbc.core.binding.BindMarkers;
+import org.springframework.r2dbc.core.binding.BindMarkersFactoryResolver;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Applies the V{version}__{description}.sql scripts over the R2DBC connection factory,
+ * replacing the separate blocking JDBC DataSource Flyway needed. It starts as soon as
+ * the bean is created and runs while the rest of the context initializes; everything
+ * that reads the database at startup waits on migrated(), and readiness stays DOWN
+ * until it is done (MigrationHealthIndicator).
+ * <p>
+ * Bookkeeping stays in flyway_schema_history with Flyway's own checksums, so databases
+ * migrated by Flyway so far are picked up as they are. Instances starting together
+ * serialize on a MariaDB named lock. As with Flyway, a script that fails is recorded
+ * with success=false and the migrations stop there: MariaDB DDL is not transactional,
+ * so running it again could not undo what the first attempt changed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SchemaMigrator {
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V([0-9]+(?:[._][0-9]+)*)__(.+)\\.sql");
+    private static final String LOCK_NAME = "schema_migration";
+
+    private static final String CREATE_HISTORY = """
+            CREATE TABLE IF NOT EXISTS flyway_schema_history (
+                installed_rank INT NOT NULL PRIMARY KEY,
+                version VARCHAR(50),
+                description VARCHAR(200) NOT NULL,
+                type VARCHAR(20) NOT NULL,
+                script VARCHAR(1000) NOT NULL,
+                checksum INT,
+                installed_by VARCHAR(100) NOT NULL,
+                installed_on TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                execution_time INT NOT NULL,
+                success BOOLEAN NOT NULL
+            )""";
+
+    private static final String SELECT_HISTORY =
+            "SELECT installed_rank, version, checksum, success FROM flyway_schema_history";
+
+    private static final String HISTORY_COLUMNS = "installed_rank, version, description, type, script, "
+            + "checksum, installed_by, execution_time, success";
+
+    private final MigrationProperties properties;
+    private final ConnectionFactory connectionFactory;
+    private final ResourcePatternResolver resourcePatternResolver;
+
+    private final AtomicReference<Status> status = new AtomicReference<>(Status.pending());
+    private final Sinks.One<Integer> migrated = Sinks.one();
+
+    @PostConstruct
+    public void start() {
+        if (!properties.enabled()) {
+            status.set(new Status(true, 0, 0, null));
+            migrated.tryEmitValue(0);
+            return;
+        }
+
+        long start = System.nanoTime();
+        migrate()
+                .doOnError(error -> status.set(status.get().failed(error)))
+                // Connection or lock problems only: a failed script stays failed
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .filter(error -> !(error instanceof MigrationAbortedException))
+                        .doBeforeRetry(signal ->
+                                log.error("Échec des migrations, nouvel essai: {}", signal.failure().getMessage())))
+                .subscribe(applied -> {
+                    long tookMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+                    status.set(new Status(true, applied, tookMs, null));
+                    migrated.tryEmitValue(applied);
+                    log.info("Schéma à jour en {} ms ({} migrations appliquées)", tookMs, applied);
+                }, error -> log.error("Migrations arrêtées, intervention nécessaire: {}", error.getMessage()));
+    }
+
+    /**
+     * Completes (with the number of scripts applied) once the schema is up to date. Never errors:
+     * connection failures are retried, and after a failed script it never completes (readiness stays DOWN).
+     */
+    public Mono<Integer> migrated() {
+        return migrated.asMono();
+    }
+
+    public Status getStatus() {
+        return status.get();
+    }
+
+    private Mono<Integer> migrate() {
+        // Scripts are read and checksummed while the connection is being opened
+        Mono<List<Script>> scripts = Mono.fromCallable(this::loadScripts)
+                .subscribeOn(Schedulers.boundedElastic());
+
+        return Mono.usingWhen(
+                Mono.zip(scripts, Mono.<Connection>from(connectionFactory.create())),
+                resources -> Mono.usingWhen(
+                        lock(resources.getT2()),
+                        locked -> migrate(resources.getT2(), resources.getT1()),
+                        locked -> unlock(resources.getT2())),
+                resources -> Mono.from(resources.getT2().close()));
+    }
+
+    private Mono<Integer> migrate(Connection connection, List<Script> scripts) {
+        return execute(connection, CREATE_HISTORY)
+                .thenMany(Flux.from(connection.createStatement(SELECT_HISTORY).execute())
+                        .flatMap(result -> result.map(AppliedMigration::from)))
+                .collectList()
+                .flatMap(history -> {
+                    Map<String, AppliedMigration> applied = new HashMap<>();
+                    int rank = 0;
+                    for (AppliedMigration migration : history) {
+                        rank = Math.max(rank, migration.rank());
+                        if (migration.version() != null) {
+                            applied.put(migration.version(), migration);
+                        }
+                    }
+
+                    List<Script> pending = new ArrayList<>();
+                    for (Script script : scripts) {
+                        AppliedMigration done = applied.get(script.version());
+                        if (done == null) {
+                            pending.add(script);
+                        } else if (!done.success()) {
+                            return Mono.error(new MigrationAbortedException("Migration " + script.name()
+                                    + " en échec lors d'un précédent démarrage, flyway_schema_history à réparer", null));
+                        } else if (done.checksum() != null && done.checksum() != script.checksum()) {
+                            return Mono.error(new MigrationAbortedException("Checksum différent pour la migration "
+                                    + script.name() + " déjà appliquée", null));
+                        }
+                    }
+                    if (pending.isEmpty()) {
+                        log.info("Schéma déjà à jour ({} migrations)", scripts.size());
+                        return Mono.just(0);
+                    }
+
+                    int firstRank = rank + 1;
+                    return Flux.range(0, pending.size())
+                            .concatMap(i -> apply(connection, pending.get(i), firstRank + i))
+                            .then(Mono.just(pending.size()));
+                });
+    }
+
+    private Mono<Void> apply(Connection connection, Script script, int rank) {
+        log.info("Application de la migration {}", script.name());
+        long start = System.nanoTime();
+        return Flux.fromIterable(script.statements())
+                .concatMap(sql -> execute(connection, sql))
+                .then(Mono.defer(() -> record(connection, script, rank, start, true)))
+                .onErrorResume(error -> Mono.defer(() -> record(connection, script, rank, start, false))
+                        .onErrorResume(recordError -> {
+                            log.error("Échec de {} non enregistré: {}", script.name(), recordError.getMessage());
+                            return Mono.empty();
+                        })
+                        .then(Mono.error(new MigrationAbortedException(
+                                "Migration " + script.name() + " en échec: " + error.getMessage(), error))));
+    }
+
+    private Mono<Void> record(Connection connection, Script script, int rank, long start, boolean success) {
+        BindMarkers markers = BindMarkersFactoryResolver.resolve(connectionFactory).create();
+        List<String> placeholders = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            placeholders.add(markers.next().getPlaceholder());
+        }
+        String sql = "INSERT INTO flyway_schema_history (" + HISTORY_COLUMNS + ") "
+                + "VALUES (" + String.join(", ", placeholders) + ")";
+        return Flux.from(connection.createStatement(sql)
+                        .bind(0, rank)
+                        .bind(1, script.version())
+                        .bind(2, script.description())
+                        .bind(3, "SQL")
+                        .bind(4, script.name())
+                        .bind(5, script.checksum())
+                        .bind(6, properties.installedBy())
+                        .bind(7, (int) Duration.ofNanos(System.nanoTime() - start).toMillis())
+                        .bind(8, success)
+                        .execute())
+                .concatMap(Result::getRowsUpdated)
+                .then();
+    }
+
+    /**
+     * Named lock held for the whole run, on this connection. H2 (load tests) has no GET_LOCK and needs none.
+     */
+    private Mono<Boolean> lock(Connection connection) {
+        if (!supportsNamedLocks()) {
+            return Mono.just(true);
+        }
+        String sql = "SELECT GET_LOCK('" + LOCK_NAME + "', " + properties.lockTimeout().toSeconds() + ")";
+        return Flux.from(connection.createStatement(sql).execute())
+                .flatMap(result -> result.map(row -> row.get(0, Long.class)))
+                .next()
+                .flatMap(acquired -> acquired != null && acquired == 1
+                        ? Mono.just(true)
+                        : Mono.error(new IllegalStateException("Verrou de migration non obtenu après "
+                                + properties.lockTimeout().toSeconds() + " s")));
+    }
+
+    /**
+     * Explicit release: close() hands the connection back to the pool, it does not end the session
+     */
+    private Mono<Void> unlock(Connection connection) {
+        if (!supportsNamedLocks()) {
+            return Mono.empty();
+        }
+        return execute(connection, "SELECT RELEASE_LOCK('" + LOCK_NAME + "')");
+    }
+
+    private boolean supportsNamedLocks() {
+        String database = connectionFactory.getMetadata().getName();
+        return database.contains("MariaDB") || database.contains("MySQL");
+    }
+
+    private static Mono<Void> execute(Connection connection, String sql) {
+        return Flux.from(connection.createStatement(sql).execute())
+                .concatMap(result -> result.getRowsUpdated())
+                .then();
+    }
+
+    private List<Script> loadScripts() throws IOException {
+        List<Script> scripts = new ArrayList<>();
+        for (Resource resource : resourcePatternResolver.getResources(properties.locations())) {
+            Matcher name = SCRIPT_NAME.matcher(String.valueOf(resource.getFilename()));
+            if (!name.matches()) {
+                log.warn("Script de migration ignoré (nom invalide): {}", resource.getFilename());
+                continue;
+            }
+            List<String> lines = readLines(resource);
+            scripts.add(new Script(
+                    name.group(1).replace('_', '.'),
+                    name.group(2).replace('_', ' '),
+                    resource.getFilename(),
+                    checksum(lines),
+                    splitStatements(lines)));
+        }
+        scripts.sort(Comparator.comparing(Script::version, SchemaMigrator::compareVersions));
+        return scripts;
+    }
+
+    private static List<String> readLines(Resource resource) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            List<String> lines = new ArrayList<>(reader.lines().toList());
+            if (!lines.isEmpty() && lines.get(0).startsWith("\uFEFF")) {
+                lines.set(0, lines.get(0).substring(1));
+            }
+            return lines;
+        }
+    }
+
+    /**
+     * Same value as Flyway: CRC32 over the UTF-8 bytes of every line, line breaks excluded
+     */
+    static int checksum(List<String> lines) {
+        CRC32 crc = new CRC32();
+        for (String line : lines) {
+            crc.update(line.getBytes(StandardCharsets.UTF_8));
+        }
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Statements end with ';'. Quoted strings and -- comments are honoured; nothing fancier
+     * (no DELIMITER, no procedures) is used by our scripts.
+     */
+    static List<String> splitStatements(List<String> lines) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (String line : lines) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (!quoted && c == '-' && i + 1 < line.length() && line.charAt(i + 1) == '-') {
+                    break;
+                }
+                if (c == '\'') {
+                    quoted = !quoted;
+                }
+                if (!quoted && c == ';') {
+                    addStatement(statements, current);
+                } else {
+                    current.append(c);
+                }
+            }
+            current.append('\n');
+        }
+        addStatement(statements, current);
+        return statements;
+    }
+
+    private static void addStatement(List<String> statements, StringBuilder current) {
+        String statement = current.toString().trim();
+        if (!statement.isEmpty()) {
+            statements.add(statement);
+        }
+        current.setLength(0);
+    }
+
+    private static int compareVersions(String left, String right) {
+        String[] a = left.split("\\.");
+        String[] b = right.split("\\.");
+        for (int i = 0; i < Math.max(a.length, b.length); i++) {
+            long x = i < a.length ? Long.parseLong(a[i]) : 0;
+            long y = i < b.length ? Long.parseLong(b[i]) : 0;
+            if (x != y) {
+                return Long.compare(x, y);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Not retried: a failed script, or a history that no longer matches the scripts, needs a person
+     */
+    private static final class MigrationAbortedException extends IllegalStateException {
+
+        MigrationAbortedException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private record Script(String version, String description, String name, int checksum, List<String> statements) {
+    }
+
+    private record AppliedMigration(int rank, String version, Integer checksum, boolean success) {
+
+        static AppliedMigration from(Readable row) {
+            return new AppliedMigration(
+                    row.get("installed_rank", Integer.class),
+                    row.get("version", String.class),
+                    row.get("checksum", Integer.class),
+                    Boolean.TRUE.equals(row.get("success", Boolean.class)));
+        }
+    }
+
+    /**
+     * @param done      schema up to date (or migrations disabled)
+     * @param applied   scripts applied by this instance
+     * @param tookMs    duration since the bean started
+     * @param lastError message of the last failed attempt, if any
+     */
+    public record Status(boolean done, int applied, long tookMs, String lastError) {
+
+        static Status pending() {
+            return new Status(false, 0, 0, null);
+        }
+
+        Status failed(Throwable error) {
+            return new Status(false, applied, tookMs, String.valueOf(error.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.fab1.backend.service;
+
+import com.fab1.backend.model.SigningKey;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.security.InvalidKeyException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory set of signing keys, swapped as a whole when keys are loaded or rotated.
+ * Signing uses the newest active key; verification looks the key up by the token's kid;
+ * the JWKS document is serialized once per swap, not per request.
+ */
+@Component
+public class SigningKeyRing {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Duration FIRST_LOAD_WAIT = Duration.ofSeconds(10);
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+    // Completes on the first replace(); the warm-up retries a failed first load
+    private final Sinks.Empty<Void> firstLoad = Sinks.empty();
+
+    public void replace(List<SigningKey> keys) {
+        snapshot.set(Snapshot.of(keys));
+        firstLoad.tryEmitEmpty();
+    }
+
+    /**
+     * current() once the keys have been loaded: a login arriving during startup waits
+     * for the first load instead of failing on an empty ring
+     */
+    public Mono<SigningKey> signingKey() {
+        return firstLoad.asMono()
+                .timeout(FIRST_LOAD_WAIT, Mono.error(() ->
+                        new IllegalStateException("Clés de signature non chargées après " + FIRST_LOAD_WAIT.toSeconds() + " s")))
+                .then(Mono.fromCallable(this::current));
+    }
+
+    /**
+     * Newest key whose activation time has passed. Pending keys are already published but don't sign yet.
+     */
+    public SigningKey current() {
+        long now = System.currentTimeMillis();
+        // Sorted newest first, a handful of entries
+        for (SigningKey key : snapshot.get().keys()) {
+            if (key.isActive(now)) {
+                return key;
+            }
+        }
+        throw new IllegalStateException("Aucune clé de signature active");
+    }
+
+    /**
+     * Key locator for the JWT parser
+     */
+    public Key locate(Header header) {
+        String kid = header instanceof ProtectedHeader protectedHeader ? protectedHeader.getKeyId() : null;
+        SigningKey key = kid != null ? snapshot.get().byKid().get(kid) : null;
+        if (key == null || key.isExpired(System.currentTimeMillis())) {
+            throw new InvalidKeyException("Clé de signature inconnue: " + kid);
+        }
+        return key.getPublicKey();
+    }
+
+    public List<SigningKey> keys() {
+        return snapshot.get().keys();
+    }
+
+    public String getJwks() {
+        return snapshot.get().jwks();
+    }
+
+    public String getJwksEtag() {
+        return snapshot.get().etag();
+    }
+
+    private record Snapshot(List<SigningKey> keys, Map<String, SigningKey> byKid, String jwks, String etag) {
+
+        static final Snapshot EMPTY = of(List.of());
+
+        static Snapshot of(List<SigningKey> keys) {
+            List<SigningKey> sorted = keys.stream()
+                    .sorted(Comparator.comparingLong(SigningKey::getActivatesAt).reversed())
+                    .toList();
+            String jwks = toJwks(sorted);
+            return new Snapshot(
+                    sorted,
+                    sorted.stream().collect(Collectors.toUnmodifiableMap(SigningKey::getKid, Function.identity())),
+                    jwks,
+                    etag(jwks));
+        }
+
+        private static String toJwks(List<SigningKey> keys) {
+            List<Map<String, String>> jwks = keys.stream()
+                    .map(Snapshot::toJwk)
+                    .toList();
+            try {
+                return JSON.writeValueAsString(Map.of("keys", jwks));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Sérialisation JWKS impossible", e);
+            }
+        }
+
+        private static Map<String, String> toJwk(SigningKey key) {
+            Map<String, String> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("use", "sig");
+            jwk.put("alg", SigningKey.ALGORITHM);
+            jwk.put("kid", key.getKid());
+            jwk.put("x", coordinate(key.getPublicKey().getW().getAffineX()));
+            jwk.put("y", coordinate(key.getPublicKey().getW().getAffineY()));
+            return jwk;
+        }
+
+        /**
+         * RFC 7518: unsigned big-endian, left-padded to the 32 bytes of a P-256 coordinate
+         */
+        private static String coordinate(BigInteger value) {
+            byte[] bytes = value.toByteArray();
+            byte[] padded = new byte[32];
+            int length = Math.min(bytes.length, 32);
+            System.arraycopy(bytes, bytes.length - length, padded, 32 - length, length);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(padded);
+        }
+
+        private static String etag(String jwks) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(jwks.getBytes(StandardCharsets.UTF_8));
+                return "\"" + HexFormat.of().formatHex(Arrays.copyOf(digest, 16)) + "\"";
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 indisponible", e);
+            }
+        }
+    }
+}
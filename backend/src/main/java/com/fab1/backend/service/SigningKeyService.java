@@ -0,0 +1,206 @@
+package com.fab1.backend.service;
+
+import com.fab1.backend.model.JwtSigningKey;
+import com.fab1.backend.model.SigningKey;
+import com.fab1.backend.repository.JwtSigningKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Persists and rotates the ES256 signing keys shared by every instance.
+ * A new key is published (JWKS, verification) publish-delay before it starts
+ * signing, so downstream caches and other instances know it first. The key it
+ * replaces keeps verifying for one access token lifetime, then is deleted.
+ * Private keys are stored encrypted with a key derived from jwt.secret.
+ * Instances creating a key at the same time are arbitrated by the unique
+ * generation: only one insert wins, the others reload its key.
+ */
+@Service
+@Slf4j
+public class SigningKeyService {
+
+    private static final int GCM_IV_BYTES = 12;
+    private static final int GCM_TAG_BITS = 128;
+
+    private final JwtSigningKeyRepository signingKeyRepository;
+    private final SigningKeyRing keyRing;
+    private final SchemaMigrator schemaMigrator;
+    private final TransactionalOperator transactionalOperator;
+    private final SecretKey encryptionKey;
+    private final long tokenExpiration;
+    private final long rotationInterval;
+    private final long publishDelay;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    // First load shared by the startup listener and the warm-up; a failure is not cached
+    private final Mono<Integer> initialLoad;
+
+    public SigningKeyService(JwtSigningKeyRepository signingKeyRepository,
+                             SigningKeyRing keyRing,
+                             SchemaMigrator schemaMigrator,
+                             TransactionalOperator transactionalOperator,
+                             @Value("${jwt.secret}") String secret,
+                             @Value("${jwt.expiration}") long tokenExpiration,
+                             @Value("${jwt.keys.rotation-interval:604800000}") long rotationInterval,
+                             @Value("${jwt.keys.publish-delay:900000}") long publishDelay) {
+        this.signingKeyRepository = signingKeyRepository;
+        this.keyRing = keyRing;
+        this.schemaMigrator = schemaMigrator;
+        this.transactionalOperator = transactionalOperator;
+        this.encryptionKey = deriveEncryptionKey(secret);
+        this.tokenExpiration = tokenExpiration;
+        this.rotationInterval = rotationInterval;
+        this.publishDelay = publishDelay;
+        this.initialLoad = Mono.defer(() -> schemaMigrator.migrated().then(refresh()))
+                .cache(count -> Duration.ofMillis(Long.MAX_VALUE), error -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        initialLoad.subscribe();
+    }
+
+    /**
+     * Completes once the key ring has been loaded at least once (creating the first key if needed)
+     */
+    public Mono<Integer> loaded() {
+        return initialLoad;
+    }
+
+    /**
+     * Drop expired keys, create the next one when the current is old enough, and
+     * reload the ring (picks up keys rotated by other instances too)
+     */
+    @Scheduled(fixedDelayString = "${jwt.keys.refresh-interval:60000}",
+            initialDelayString = "${jwt.keys.refresh-interval:60000}")
+    public Mono<Integer> refresh() {
+        long now = System.currentTimeMillis();
+        return signingKeyRepository.deleteExpired(now)
+                .thenMany(signingKeyRepository.findAll())
+                .collectList()
+                .flatMap(rows -> rotateIfDue(rows, now))
+                .map(rows -> rows.stream().map(this::decode).toList())
+                .doOnNext(keyRing::replace)
+                .map(List::size)
+                .doOnNext(count -> log.debug("Clés de signature chargées: {}", count))
+                .doOnError(error -> log.error("Erreur lors du chargement des clés de signature: {}", error.getMessage()));
+    }
+
+    private Mono<List<JwtSigningKey>> rotateIfDue(List<JwtSigningKey> rows, long now) {
+        long generation = rows.stream()
+                .mapToLong(JwtSigningKey::getGeneration)
+                .max()
+                .orElse(0) + 1;
+        if (rows.isEmpty()) {
+            // First start: nothing to publish in advance, sign right away
+            return create(generation, now, null).then(signingKeyRepository.findAll().collectList());
+        }
+
+        long newestActivation = rows.stream().mapToLong(JwtSigningKey::getActivatesAt).max().getAsLong();
+        boolean pending = newestActivation > now;
+        if (pending || now - newestActivation < rotationInterval) {
+            return Mono.just(rows);
+        }
+
+        long activatesAt = now + publishDelay;
+        log.info("Rotation des clés de signature: nouvelle clé active à partir de {}", activatesAt);
+        // Tokens signed by the old key until activatesAt must still verify for their whole lifetime
+        return create(generation, activatesAt, activatesAt + tokenExpiration)
+                .then(signingKeyRepository.findAll().collectList());
+    }
+
+    /**
+     * Inserts the next key, then retires its predecessors (retireAt, when there are any).
+     * The insert comes first so an instance that loses the race on the generation has
+     * changed nothing.
+     */
+    private Mono<Void> create(long generation, long activatesAt, Long retireAt) {
+        SigningKey key = SigningKey.generate(activatesAt);
+        return signingKeyRepository.insert(
+                        key.getKid(),
+                        SigningKey.ALGORITHM,
+                        Base64.getEncoder().encodeToString(key.getPublicKey().getEncoded()),
+                        encrypt(key.getPrivateKey().getEncoded()),
+                        activatesAt,
+                        generation)
+                .then(retireAt != null
+                        ? signingKeyRepository.retireCurrent(key.getKid(), retireAt).then()
+                        : Mono.<Void>empty())
+                .as(transactionalOperator::transactional)
+                .onErrorResume(DuplicateKeyException.class, e -> {
+                    log.info("Clé de signature de génération {} déjà créée par une autre instance", generation);
+                    return Mono.empty();
+                });
+    }
+
+    private SigningKey decode(JwtSigningKey row) {
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("EC");
+            ECPublicKey publicKey = (ECPublicKey) keyFactory.generatePublic(
+                    new X509EncodedKeySpec(Base64.getDecoder().decode(row.getPublicKey())));
+            ECPrivateKey privateKey = (ECPrivateKey) keyFactory.generatePrivate(
+                    new PKCS8EncodedKeySpec(decrypt(row.getPrivateKey())));
+            return new SigningKey(row.getKid(), privateKey, publicKey, row.getActivatesAt(), row.getExpiresAt());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Clé de signature illisible: " + row.getKid(), e);
+        }
+    }
+
+    private String encrypt(byte[] plain) {
+        try {
+            byte[] iv = new byte[GCM_IV_BYTES];
+            secureRandom.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(GCM_TAG_BITS, iv));
+            byte[] encrypted = cipher.doFinal(plain);
+            return Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + encrypted.length)
+                    .put(iv)
+                    .put(encrypted)
+                    .array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Chiffrement de la clé privée impossible", e);
+        }
+    }
+
+    private byte[] decrypt(String stored) throws GeneralSecurityException {
+        byte[] data = Base64.getDecoder().decode(stored);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(GCM_TAG_BITS, data, 0, GCM_IV_BYTES));
+        return cipher.doFinal(data, GCM_IV_BYTES, data.length - GCM_IV_BYTES);
+    }
+
+    private static SecretKey deriveEncryptionKey(String secret) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(digest, "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
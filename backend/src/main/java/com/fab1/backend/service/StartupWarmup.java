@@ -0,0 +1,110 @@
+package com.fab1.backend.service;
+
+import com.fab1.backend.config.WarmupProperties;
+import com.fab1.backend.model.User;
+import com.fab1.backend.repository.UserRepository;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pays the cold-start costs before traffic arrives: opens the pool's initial
+ * connections (TLS handshakes to SkySQL), loads the in-memory state the request
+ * path relies on (signing keys, roles, revocations), and runs the user queries,
+ * a JWT sign + verify and one BCrypt hash so their code paths are loaded and JIT-warm.
+ * The readiness probe stays DOWN until this has succeeded (WarmupHealthIndicator).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StartupWarmup {
+
+    private final WarmupProperties properties;
+    private final ConnectionFactory connectionFactory;
+    private final SchemaMigrator schemaMigrator;
+    private final UserRepository userRepository;
+    private final SigningKeyService signingKeyService;
+    private final RoleCatalog roleCatalog;
+    private final RevokedTokenRegistry revokedTokenRegistry;
+    private final JwtService jwtService;
+    private final PasswordHashingService passwordHashingService;
+
+    private final AtomicReference<Status> status = new AtomicReference<>(Status.pending());
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.enabled()) {
+            status.set(new Status(true, 0, 0, null));
+            return;
+        }
+
+        long start = System.nanoTime();
+        warmUp()
+                .timeout(properties.timeout())
+                .doOnError(error -> {
+                    log.warn("Échec du warm-up, nouvel essai: {}", error.getMessage());
+                    status.set(status.get().failed(error));
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe(connections -> {
+                    long tookMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+                    status.set(new Status(true, connections, tookMs, null));
+                    log.info("Warm-up terminé en {} ms ({} connexions ouvertes)", tookMs, connections);
+                });
+    }
+
+    public Status getStatus() {
+        return status.get();
+    }
+
+    private Mono<Integer> warmUp() {
+        String probe = properties.probeUsername();
+        User probeUser = User.builder().id(0L).username(probe).build();
+
+        // Pool connections open while the migrations are still running
+        return Mono.zip(openConnections(), schemaMigrator.migrated(), (connections, applied) -> connections)
+                .flatMap(connections -> Mono.when(
+                                signingKeyService.loaded(),
+                                roleCatalog.refresh(),
+                                revokedTokenRegistry.refresh())
+                        .then(userRepository.findByUsername(probe).then())
+                        .then(userRepository.findByUsernameWithRoles(probe).then())
+                        .then(jwtService.generateToken(probeUser).flatMap(jwtService::verify).then())
+                        .then(passwordHashingService.encode(probe))
+                        .thenReturn(connections));
+    }
+
+    private Mono<Integer> openConnections() {
+        if (connectionFactory instanceof ConnectionPool pool) {
+            // Opens spring.r2dbc.pool.initial-size connections
+            return pool.warmup();
+        }
+        return Mono.just(0);
+    }
+
+    /**
+     * @param ready       warm-up completed (or disabled)
+     * @param connections connections opened by the pool warm-up
+     * @param tookMs      duration of the successful attempt, since startup
+     * @param lastError   message of the last failed attempt, if any
+     */
+    public record Status(boolean ready, int connections, long tookMs, String lastError) {
+
+        static Status pending() {
+            return new Status(false, 0, 0, null);
+        }
+
+        Status failed(Throwable error) {
+            return new Status(false, connections, tookMs, String.valueOf(error.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.fab1.backend.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over token ids. A negative answer is definitive and
+ * costs a few array reads with no allocation; a positive one must be confirmed
+ * against the exact set. Adds are lock-free, entries can't be removed: the
+ * owner rebuilds a fresh filter to drop expired ids.
+ */
+public final class TokenIdBloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    private TokenIdBloomFilter(int wordCount, int hashCount) {
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount * Long.SIZE;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Sized for the expected number of ids at the given false positive rate
+     */
+    public static TokenIdBloomFilter create(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(1, expectedInsertions);
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE, Math.max(1, (bits + Long.SIZE - 1) / Long.SIZE));
+        int hashCount = Math.max(1, (int) Math.round((double) wordCount * Long.SIZE / n * ln2));
+        return new TokenIdBloomFilter(wordCount, hashCount);
+    }
+
+    public void add(CharSequence tokenId) {
+        long hash = hash(tokenId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = bitIndex(h1, h2, i);
+            long mask = 1L << bit;
+            words.accumulateAndGet((int) (bit >>> 6), mask, (word, m) -> word | m);
+        }
+    }
+
+    public boolean mightContain(CharSequence tokenId) {
+        long hash = hash(tokenId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = bitIndex(h1, h2, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    private long bitIndex(int h1, int h2, int i) {
+        // Kirsch-Mitzenmacher: k indexes out of two halves of one 64-bit hash
+        long combined = h1 + (long) i * h2;
+        return (combined & Long.MAX_VALUE) % bitCount;
+    }
+
+    private static long hash(CharSequence value) {
+        // FNV-1a over the chars, then the murmur3 finalizer to spread the bits
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
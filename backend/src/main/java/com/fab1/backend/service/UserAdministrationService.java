@@ -0,0 +1,126 @@
+package com.fab1.backend.service;
+
+import com.fab1.backend.dto.UserPage;
+import com.fab1.backend.dto.UserSummary;
+import com.fab1.backend.model.Role;
+import com.fab1.backend.model.User;
+import com.fab1.backend.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Admin view of the users table. Pages are keyset-based (no OFFSET), so page
+ * 10 000 costs the same as page 1, and the export walks the table page by page
+ * as the client reads: memory and connection time stay bounded by one page.
+ */
+@Service
+@Slf4j
+public class UserAdministrationService {
+
+    private static final String ID_CURSOR = "id:";
+    private static final String USERNAME_CURSOR = "name:";
+
+    private final UserRepository userRepository;
+    private final int maxPageSize;
+    private final int exportPageSize;
+
+    public UserAdministrationService(UserRepository userRepository,
+                                     @Value("${auth.users.max-page-size:500}") int maxPageSize,
+                                     @Value("${auth.users.export-page-size:1000}") int exportPageSize) {
+        this.userRepository = userRepository;
+        this.maxPageSize = maxPageSize;
+        this.exportPageSize = exportPageSize;
+    }
+
+    /**
+     * Without prefix: id order, after the last id. With prefix: username order on the
+     * unique index, after the last username. Either way the cursor is only handed back.
+     */
+    public Mono<UserPage> listUsers(String prefix, String after, int limit) {
+        int size = Math.max(1, Math.min(limit, maxPageSize));
+        return Mono.defer(() -> fetchPage(prefix, after != null ? positionOf(prefix, after) : null, size))
+                .map(users -> new UserPage(
+                        users.stream().map(UserAdministrationService::toSummary).toList(),
+                        users.size() < size ? null : cursorOf(prefix, users)));
+    }
+
+    /**
+     * Every matching user, fetched exportPageSize at a time; the next page is only
+     * queried once the client has consumed the current one
+     */
+    public Flux<UserSummary> exportUsers(String prefix) {
+        return fetchPage(prefix, null, exportPageSize)
+                .expand(users -> users.size() < exportPageSize
+                        ? Mono.empty()
+                        : fetchPage(prefix, lastPosition(prefix, users), exportPageSize))
+                // One page buffered at a time: the default prefetch would query 32 pages ahead
+                .concatMapIterable(users -> users, 1)
+                .map(UserAdministrationService::toSummary)
+                .doOnCancel(() -> log.info("Export des utilisateurs interrompu par le client"));
+    }
+
+    /**
+     * @param after last username (with prefix) or last id seen, null for the first page
+     */
+    private Mono<List<User>> fetchPage(String prefix, String after, int size) {
+        if (hasPrefix(prefix)) {
+            return userRepository.findPageByUsernamePrefix(prefix, after != null ? after : "", size).collectList();
+        }
+        return userRepository.findPageAfterId(after != null ? Long.parseLong(after) : 0L, size).collectList();
+    }
+
+    private static String lastPosition(String prefix, List<User> users) {
+        User last = users.get(users.size() - 1);
+        return hasPrefix(prefix) ? last.getUsername() : Long.toString(last.getId());
+    }
+
+    /**
+     * Base64url of "id:{last id}" or "name:{last username}"
+     */
+    private static String cursorOf(String prefix, List<User> users) {
+        String position = (hasPrefix(prefix) ? USERNAME_CURSOR : ID_CURSOR) + lastPosition(prefix, users);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Back from a cursor to the position it encodes. A cursor from the other ordering
+     * (with / without prefix) is as invalid as a malformed one.
+     */
+    private static String positionOf(String prefix, String cursor) {
+        String kind = hasPrefix(prefix) ? USERNAME_CURSOR : ID_CURSOR;
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (position.startsWith(kind)) {
+                String value = position.substring(kind.length());
+                if (kind.equals(ID_CURSOR)) {
+                    Long.parseLong(value);
+                }
+                return value;
+            }
+        } catch (IllegalArgumentException e) {
+            // Not Base64, or not a number: same answer as a wrong kind
+        }
+        throw new ServerWebInputException("Curseur invalide: " + cursor);
+    }
+
+    private static boolean hasPrefix(String prefix) {
+        return prefix != null && !prefix.isEmpty();
+    }
+
+    private static UserSummary toSummary(User user) {
+        return UserSummary.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .enabled(user.isEnabled())
+                .roles(user.getRoles().stream().map(Role::getName).sorted().toList())
+                .build();
+    }
+}
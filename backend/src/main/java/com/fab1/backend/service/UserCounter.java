@@ -0,0 +1,152 @@
+package com.fab1.backend.service;
+
+import com.fab1.backend.dto.UserCounts;
+import com.fab1.backend.model.Role;
+import com.fab1.backend.model.User;
+import com.fab1.backend.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * User totals kept in memory, so the dashboard never runs a COUNT(*) on users.
+ * Seeded at startup, adjusted by every create/delete/enable/role path of this node,
+ * and reconciled against the database periodically (which also picks up changes
+ * made by other nodes or straight in SQL).
+ */
+@Service
+@Slf4j
+public class UserCounter {
+
+    private final UserRepository userRepository;
+    private final RoleCatalog roleCatalog;
+    private final SchemaMigrator schemaMigrator;
+
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong enabled = new AtomicLong();
+    private final Map<String, AtomicLong> byRole = new ConcurrentHashMap<>();
+
+    // First reconcile shared by the startup listener and early readers; a failure is not cached
+    private final Mono<UserCounts> seeded;
+
+    public UserCounter(UserRepository userRepository,
+                       RoleCatalog roleCatalog,
+                       SchemaMigrator schemaMigrator,
+                       MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.roleCatalog = roleCatalog;
+        this.schemaMigrator = schemaMigrator;
+        this.seeded = Mono.defer(() -> schemaMigrator.migrated().then(reconcile()))
+                .cache(counts -> Duration.ofMillis(Long.MAX_VALUE), error -> Duration.ZERO, () -> Duration.ZERO);
+        Gauge.builder("auth.users.total", total, AtomicLong::get)
+                .description("Comptes utilisateurs")
+                .register(meterRegistry);
+        Gauge.builder("auth.users.enabled", enabled, AtomicLong::get)
+                .description("Comptes utilisateurs actifs")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        seeded.subscribe();
+    }
+
+    /**
+     * Current totals; only the very first call before the startup seed has finished waits on the database
+     */
+    public Mono<UserCounts> counts() {
+        return seeded.map(initial -> snapshot());
+    }
+
+    public void created(User user) {
+        total.incrementAndGet();
+        if (user.isEnabled()) {
+            enabled.incrementAndGet();
+        }
+        user.getRoles().forEach(role -> role(role.getName()).incrementAndGet());
+    }
+
+    /**
+     * The user as it was just before the delete (enabled flag and roles)
+     */
+    public void deleted(User user) {
+        total.decrementAndGet();
+        if (user.isEnabled()) {
+            enabled.decrementAndGet();
+        }
+        user.getRoles().forEach(role -> role(role.getName()).decrementAndGet());
+    }
+
+    public void enabledChanged(User before, boolean nowEnabled) {
+        if (before.isEnabled() != nowEnabled) {
+            enabled.addAndGet(nowEnabled ? 1 : -1);
+        }
+    }
+
+    public void rolesChanged(User before, Collection<Role> roles) {
+        before.getRoles().forEach(role -> role(role.getName()).decrementAndGet());
+        roles.forEach(role -> role(role.getName()).incrementAndGet());
+    }
+
+    /**
+     * Two grouped queries (by enabled flag, by role). Changes made while they run are
+     * carried over: new value = database + (in-memory after - in-memory before).
+     */
+    @Scheduled(fixedDelayString = "${auth.users.counter.reconcile-interval:600000}",
+            initialDelayString = "${auth.users.counter.reconcile-interval:600000}")
+    public Mono<UserCounts> reconcile() {
+        return Mono.defer(() -> {
+                    UserCounts before = snapshot();
+                    return Mono.zip(userRepository.countByEnabled(), userRepository.countByRoleId())
+                            .map(counted -> apply(before, counted.getT1(), counted.getT2()));
+                })
+                .doOnError(error -> log.error("Erreur lors du comptage des utilisateurs: {}", error.getMessage()));
+    }
+
+    private UserCounts apply(UserCounts before, Map<Boolean, Long> byEnabled, Map<Long, Long> byRoleId) {
+        long dbEnabled = byEnabled.getOrDefault(true, 0L);
+        long dbTotal = dbEnabled + byEnabled.getOrDefault(false, 0L);
+
+        UserCounts after = snapshot();
+        long drift = before.getTotal() - dbTotal;
+        total.set(dbTotal + after.getTotal() - before.getTotal());
+        enabled.set(dbEnabled + after.getEnabled() - before.getEnabled());
+
+        Map<String, Long> dbByRole = new TreeMap<>();
+        byRoleId.forEach((roleId, count) -> roleCatalog.findById(roleId)
+                .ifPresent(role -> dbByRole.put(role.getName(), count)));
+        dbByRole.keySet().forEach(this::role);
+        byRole.forEach((name, value) -> value.set(dbByRole.getOrDefault(name, 0L)
+                + after.getByRole().getOrDefault(name, 0L) - before.getByRole().getOrDefault(name, 0L)));
+
+        if (drift != 0) {
+            log.info("Compteur d'utilisateurs recalé sur la base (écart de {})", drift);
+        }
+        log.debug("Compteur d'utilisateurs réconcilié: {} comptes", total.get());
+        return snapshot();
+    }
+
+    private UserCounts snapshot() {
+        Map<String, Long> roles = new TreeMap<>();
+        byRole.forEach((name, value) -> roles.put(name, value.get()));
+        long currentTotal = total.get();
+        long currentEnabled = enabled.get();
+        return new UserCounts(currentTotal, currentEnabled, currentTotal - currentEnabled, roles);
+    }
+
+    private AtomicLong role(String name) {
+        return byRole.computeIfAbsent(name, key -> new AtomicLong());
+    }
+}
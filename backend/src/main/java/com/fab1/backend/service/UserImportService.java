@@ -0,0 +1,289 @@
+package com.fab1.backend.service;
+
+import com.fab1.backend.dto.UserImportResult;
+import com.fab1.backend.dto.UserImportResult.Status;
+import com.fab1.backend.dto.UserImportRow;
+import com.fab1.backend.exception.HashingCapacityExceededException;
+import com.fab1.backend.model.Role;
+import com.fab1.backend.model.User;
+import com.fab1.backend.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk account import (migration from the legacy system). Rows are read as a
+ * backpressured stream: plain passwords are hashed in parallel on the hashing pool
+ * (with a bounded number in flight so interactive logins keep their share), BCrypt
+ * hashes are stored as is, and users + user_roles go in by batches of multi-row inserts.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+
+    private static final String DEFAULT_ROLE = "USER";
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+    private static final int MAX_USERNAME_LENGTH = 100;
+
+    private final UserRepository userRepository;
+    private final RoleCatalog roleCatalog;
+    private final PasswordHashingService passwordHashingService;
+    private final UserCounter userCounter;
+    private final int batchSize;
+    private final int hashingConcurrency;
+    private final Map<Status, Counter> rowCounters = new EnumMap<>(Status.class);
+
+    public UserImportService(UserRepository userRepository,
+                             RoleCatalog roleCatalog,
+                             PasswordHashingService passwordHashingService,
+                             UserCounter userCounter,
+                             MeterRegistry meterRegistry,
+                             @Value("${auth.import.batch-size:500}") int batchSize,
+                             @Value("${auth.import.hashing-concurrency:0}") int hashingConcurrency) {
+        this.userRepository = userRepository;
+        this.roleCatalog = roleCatalog;
+        this.passwordHashingService = passwordHashingService;
+        this.userCounter = userCounter;
+        this.batchSize = batchSize;
+        this.hashingConcurrency = hashingConcurrency > 0
+                ? hashingConcurrency
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        for (Status status : Status.values()) {
+            if (status != Status.SUMMARY) {
+                rowCounters.put(status, Counter.builder("auth.import.rows")
+                        .tag("status", status.name().toLowerCase(Locale.ROOT))
+                        .register(meterRegistry));
+            }
+        }
+    }
+
+    /**
+     * One result per row, in input order, then the summary. Nothing is buffered
+     * beyond one batch plus the hashes in flight.
+     */
+    public Flux<UserImportResult> importUsers(Flux<UserImportRow> rows) {
+        Tally tally = new Tally();
+        long start = System.nanoTime();
+        log.info("Import d'utilisateurs démarré (lots de {}, {} hachages en parallèle)", batchSize, hashingConcurrency);
+
+        return rows.index()
+                .flatMapSequential(indexed -> prepare(indexed.getT1() + 1, indexed.getT2()), hashingConcurrency)
+                .buffer(batchSize)
+                .concatMap(this::insertBatch)
+                .doOnNext(result -> {
+                    tally.count(result.getStatus());
+                    rowCounters.get(result.getStatus()).increment();
+                })
+                .concatWith(Mono.fromCallable(() -> tally.summary(System.nanoTime() - start)))
+                .doOnComplete(() -> log.info("Import d'utilisateurs terminé: {}", tally))
+                .doOnError(error -> log.error("Import d'utilisateurs interrompu après {}: {}",
+                        tally, error.getMessage()));
+    }
+
+    /**
+     * CSV with a header line naming the columns (username, password, passwordHash, role, enabled),
+     * in any order; unknown columns are ignored
+     */
+    public static Flux<UserImportRow> parseCsv(Flux<String> lines) {
+        return lines.filter(line -> !line.isBlank())
+                .switchOnFirst((first, all) -> {
+                    List<String> header = first.hasValue() ? splitCsv(first.get()) : List.of();
+                    return all.skip(1).map(line -> toRow(header, splitCsv(line)));
+                });
+    }
+
+    private Mono<Candidate> prepare(long row, UserImportRow input) {
+        String username = input.getUsername() != null ? input.getUsername().trim() : null;
+        if (username == null || username.isEmpty() || username.length() > MAX_USERNAME_LENGTH) {
+            return rejected(row, username, "Nom d'utilisateur manquant ou trop long");
+        }
+
+        String roleName = input.getRole() != null && !input.getRole().isBlank() ? input.getRole().trim() : DEFAULT_ROLE;
+        Optional<Role> role = roleCatalog.findByName(roleName);
+        if (role.isEmpty()) {
+            return rejected(row, username, "Rôle inconnu: " + roleName);
+        }
+
+        User user = User.builder()
+                .username(username)
+                .enabled(input.getEnabled() == null || input.getEnabled())
+                .roles(new HashSet<>(Set.of(role.get())))
+                .build();
+
+        // Legacy BCrypt hash: kept as is, the login path re-hashes it at our cost on first use
+        if (input.getPasswordHash() != null) {
+            if (!BCRYPT_HASH.matcher(input.getPasswordHash()).matches()) {
+                return rejected(row, username, "Hash BCrypt invalide");
+            }
+            user.setPassword(input.getPasswordHash());
+            return Mono.just(new Candidate(row, user, null));
+        }
+
+        String password = input.getPassword();
+        if (password == null || password.length() < 6 || password.length() > 100) {
+            return rejected(row, username, "Le mdp doit contenir entre 6 et 100 caractères");
+        }
+        return passwordHashingService.encode(password)
+                // Pool momentarily full (logins have priority): wait rather than fail the row
+                .retryWhen(Retry.backoff(10, Duration.ofMillis(50))
+                        .maxBackoff(Duration.ofSeconds(2))
+                        .filter(HashingCapacityExceededException.class::isInstance))
+                .map(hash -> {
+                    user.setPassword(hash);
+                    return new Candidate(row, user, null);
+                })
+                .onErrorResume(error -> {
+                    log.warn("Hachage impossible pour {} (ligne {}): {}", username, row, error.getMessage());
+                    return Mono.just(new Candidate(row, null,
+                            UserImportResult.rejected(row, username, Status.ERROR, "Hachage impossible")));
+                });
+    }
+
+    private Flux<UserImportResult> insertBatch(List<Candidate> batch) {
+        List<User> users = new ArrayList<>(batch.size());
+        for (Candidate candidate : batch) {
+            if (candidate.user() != null) {
+                users.add(candidate.user());
+            }
+        }
+
+        return userRepository.insertAllIgnoringDuplicates(users)
+                .doOnNext(userCounter::created)
+                .map(User::getUsername)
+                .collect(HashSet<String>::new, Set::add)
+                .map(inserted -> resultsOf(batch, inserted, null))
+                .onErrorResume(error -> {
+                    log.error("Échec de l'insertion d'un lot de {} utilisateurs: {}", users.size(), error.getMessage());
+                    return Mono.just(resultsOf(batch, Set.of(), "Erreur lors de l'insertion du lot"));
+                })
+                .flatMapIterable(results -> results);
+    }
+
+    private static List<UserImportResult> resultsOf(List<Candidate> batch, Set<String> inserted, String failure) {
+        Set<String> remaining = new HashSet<>(inserted);
+        List<UserImportResult> results = new ArrayList<>(batch.size());
+        for (Candidate candidate : batch) {
+            if (candidate.rejection() != null) {
+                results.add(candidate.rejection());
+                continue;
+            }
+            String username = candidate.user().getUsername();
+            if (failure != null) {
+                results.add(UserImportResult.rejected(candidate.row(), username, Status.ERROR, failure));
+            } else if (remaining.remove(username)) {
+                // First row with this username is the one the INSERT IGNORE kept
+                results.add(UserImportResult.of(candidate.row(), username, Status.CREATED));
+            } else {
+                results.add(UserImportResult.rejected(candidate.row(), username, Status.DUPLICATE,
+                        "Ce nom d'utilisateur est déjà pris"));
+            }
+        }
+        return results;
+    }
+
+    private static Mono<Candidate> rejected(long row, String username, String message) {
+        return Mono.just(new Candidate(row, null, UserImportResult.rejected(row, username, Status.INVALID, message)));
+    }
+
+    private static UserImportRow toRow(List<String> header, List<String> values) {
+        String username = null, password = null, passwordHash = null, role = null;
+        Boolean enabled = null;
+        for (int i = 0; i < header.size() && i < values.size(); i++) {
+            String value = values.get(i).isEmpty() ? null : values.get(i);
+            switch (header.get(i).toLowerCase(Locale.ROOT)) {
+                case "username" -> username = value;
+                case "password" -> password = value;
+                case "passwordhash", "password_hash" -> passwordHash = value;
+                case "role" -> role = value;
+                case "enabled" -> enabled = value == null ? null : Boolean.valueOf(value);
+                default -> { }
+            }
+        }
+        return new UserImportRow(username, password, passwordHash, role, enabled);
+    }
+
+    /**
+     * RFC 4180 fields: comma separated, optionally double-quoted, "" for a literal quote
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else if (c != '\r') {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    /**
+     * A prepared row: either a user ready to insert (password hashed) or the reason it was rejected
+     */
+    private record Candidate(long row, User user, UserImportResult rejection) {
+    }
+
+    /**
+     * Results are emitted one at a time (concatMap), so plain fields are enough
+     */
+    private static final class Tally {
+
+        private final Map<Status, Long> counts = new EnumMap<>(Status.class);
+        private long total;
+
+        void count(Status status) {
+            total++;
+            counts.merge(status, 1L, Long::sum);
+        }
+
+        UserImportResult summary(long elapsedNanos) {
+            return UserImportResult.builder()
+                    .status(Status.SUMMARY)
+                    .total(total)
+                    .created(counts.getOrDefault(Status.CREATED, 0L))
+                    .duplicates(counts.getOrDefault(Status.DUPLICATE, 0L))
+                    .invalid(counts.getOrDefault(Status.INVALID, 0L))
+                    .failed(counts.getOrDefault(Status.ERROR, 0L))
+                    .durationMs(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                    .build();
+        }
+
+        @Override
+        public String toString() {
+            return total + " lignes " + counts;
+        }
+    }
+}
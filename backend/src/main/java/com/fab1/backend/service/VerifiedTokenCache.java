@@ -0,0 +1,119 @@
+package com.fab1.backend.service;
+
+import com.fab1.backend.model.VerifiedToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Opt-in cache of already verified tokens, so a token the SPA sends hundreds of
+ * times only pays for the signature check + JSON parse once. Keyed by a SHA-256 digest of the
+ * token (raw tokens are never kept in memory) and each entry expires at the token's exp.
+ */
+@Component
+@Slf4j
+public class VerifiedTokenCache {
+
+    private final Cache<String, VerifiedToken> cache;
+
+    // Explicit: with the private constructor below, Spring would otherwise pick the no-arg one
+    @Autowired
+    public VerifiedTokenCache(@Value("${jwt.cache.enabled:false}") boolean enabled,
+                              @Value("${jwt.cache.max-size:10000}") long maxSize,
+                              MeterRegistry meterRegistry) {
+        if (!enabled) {
+            this.cache = null;
+            return;
+        }
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ExpireAtTokenExp())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified");
+        log.info("Cache des tokens vérifiés activé (max {} entrées)", maxSize);
+    }
+
+    private VerifiedTokenCache() {
+        this.cache = null;
+    }
+
+    /**
+     * A cache that never holds anything, for code paths that build JwtService by hand
+     */
+    public static VerifiedTokenCache disabled() {
+        return new VerifiedTokenCache();
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * Returns the verified token, or null on a miss (or if the cached one just expired)
+     */
+    public VerifiedToken get(String token) {
+        if (cache == null) {
+            return null;
+        }
+        String key = digest(token);
+        VerifiedToken verified = cache.getIfPresent(key);
+        if (verified != null && verified.isExpired()) {
+            cache.invalidate(key);
+            return null;
+        }
+        return verified;
+    }
+
+    public void put(String token, VerifiedToken verified) {
+        if (cache != null) {
+            cache.put(digest(token), verified);
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    private static final class ExpireAtTokenExp implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            return untilExpiry(value);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return untilExpiry(value);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        private static long untilExpiry(VerifiedToken value) {
+            return Math.max(0L, Duration.between(Instant.now(), value.getExpiresAt()).toNanos());
+        }
+    }
+}
@@ -0,0 +1,6 @@
+CREATE TABLE revoked_tokens (
+    jti CHAR(36) PRIMARY KEY,
+    expires_at BIGINT NOT NULL
+);
+
+CREATE INDEX idx_revoked_tokens_expires ON revoked_tokens (expires_at);
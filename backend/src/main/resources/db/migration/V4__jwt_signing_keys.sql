@@ -0,0 +1,13 @@
+CREATE TABLE jwt_signing_keys (
+    kid CHAR(36) PRIMARY KEY,
+    algorithm VARCHAR(16) NOT NULL,
+    public_key TEXT NOT NULL,
+    private_key TEXT NOT NULL,
+    activates_at BIGINT NOT NULL,
+    expires_at BIGINT NULL,
+    generation BIGINT NOT NULL
+);
+
+-- One key per generation: two instances creating the first key or rotating at the
+-- same time collide here, and the loser keeps the winner's key.
+CREATE UNIQUE INDEX idx_jwt_signing_keys_generation ON jwt_signing_keys (generation);
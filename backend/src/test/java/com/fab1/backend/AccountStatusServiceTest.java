@@ -0,0 +1,89 @@
+package com.fab1.backend;
+
+import com.fab1.backend.repository.UserRepository;
+import com.fab1.backend.service.AccountStatusService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Account status checks of the stateless mode against a stubbed repository
+ */
+class AccountStatusServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    @Test
+    void statusIsQueriedOncePerTtl() {
+        when(userRepository.findEnabledById(1L)).thenReturn(Mono.just(true));
+        AccountStatusService service = service(60_000);
+
+        assertThat(service.isActive(1L).block()).isTrue();
+        assertThat(service.isActive(1L).block()).isTrue();
+
+        verify(userRepository, times(1)).findEnabledById(1L);
+    }
+
+    @Test
+    void deletedAccountIsInactive() {
+        when(userRepository.findEnabledById(1L)).thenReturn(Mono.empty());
+
+        assertThat(service(60_000).isActive(1L).block()).isFalse();
+    }
+
+    @Test
+    void markInactiveLocksTheAccountOutImmediately() {
+        when(userRepository.findEnabledById(1L)).thenReturn(Mono.just(true));
+        AccountStatusService service = service(60_000);
+        assertThat(service.isActive(1L).block()).isTrue();
+
+        service.markInactive(1L);
+
+        assertThat(service.isActive(1L).block()).isFalse();
+        verify(userRepository, times(1)).findEnabledById(1L);
+    }
+
+    @Test
+    void changeMadeElsewhereIsSeenOnceTheTtlExpires() throws InterruptedException {
+        // Disabled by another node: this one only learns it from the database
+        when(userRepository.findEnabledById(1L)).thenReturn(Mono.just(true), Mono.just(false));
+        AccountStatusService service = service(50);
+        assertThat(service.isActive(1L).block()).isTrue();
+
+        Thread.sleep(200);
+
+        assertThat(service.isActive(1L).block()).isFalse();
+        verify(userRepository, times(2)).findEnabledById(1L);
+    }
+
+    @Test
+    void concurrentMissesShareOneQuery() {
+        Sinks.One<Boolean> enabled = Sinks.one();
+        when(userRepository.findEnabledById(1L)).thenReturn(enabled.asMono());
+        AccountStatusService service = service(60_000);
+
+        // All started before the query answers
+        List<Mono<Boolean>> checks = IntStream.range(0, 8)
+                .mapToObj(i -> service.isActive(1L).cache())
+                .toList();
+        checks.forEach(Mono::subscribe);
+        enabled.tryEmitValue(true);
+
+        assertThat(checks).allSatisfy(check -> assertThat(check.block()).isTrue());
+        verify(userRepository, times(1)).findEnabledById(1L);
+    }
+
+    private AccountStatusService service(long statusTtl) {
+        return new AccountStatusService(userRepository, new SimpleMeterRegistry(), statusTtl, 1_000);
+    }
+}
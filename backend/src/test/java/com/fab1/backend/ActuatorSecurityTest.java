@@ -0,0 +1,45 @@
+package com.fab1.backend;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * The probes and the scrape endpoint are open on the management port only; the
+ * same paths on the application port need a token.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "management.server.port=0")
+@ActiveProfiles("h2")
+class ActuatorSecurityTest {
+
+    @LocalServerPort
+    private int serverPort;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    void probesAreOpenOnTheManagementPort() {
+        client(managementPort).get().uri("/actuator/health/liveness")
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void actuatorPathsNeedATokenOnTheApplicationPort() {
+        client(serverPort).get().uri("/actuator/health/liveness")
+                .exchange()
+                .expectStatus().isUnauthorized();
+        client(serverPort).get().uri("/actuator/prometheus")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    private static WebTestClient client(int port) {
+        return WebTestClient.bindToServer().baseUrl("http://localhost:" + port).build();
+    }
+}
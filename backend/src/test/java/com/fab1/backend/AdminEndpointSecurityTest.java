@@ -0,0 +1,71 @@
+package com.fab1.backend;
+
+import com.fab1.backend.repository.RoleRepository;
+import com.fab1.backend.service.AuthService;
+import com.fab1.backend.service.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * /api/admin/** is for the ADMIN role only
+ */
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("h2")
+class AdminEndpointSecurityTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @BeforeEach
+    void waitForRoles() {
+        // Roles are seeded in the background once the context is up
+        roleRepository.findByName("ADMIN")
+                .repeatWhenEmpty(attempts -> attempts.delayElements(Duration.ofMillis(50)))
+                .block(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void roleRefreshNeedsAToken() {
+        webTestClient.post().uri("/api/admin/roles/refresh")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void roleRefreshIsForbiddenToUsers() {
+        refreshRolesAs("USER").expectStatus().isForbidden();
+    }
+
+    @Test
+    void roleRefreshIsAllowedToAdmins() {
+        refreshRolesAs("ADMIN").expectStatus().isOk();
+    }
+
+    private WebTestClient.ResponseSpec refreshRolesAs(String roleName) {
+        String username = "admin-sec-" + UUID.randomUUID().toString().substring(0, 8);
+        String token = authService.createUser(username, "password123", roleName)
+                .flatMap(jwtService::generateToken)
+                .block();
+        return webTestClient.post().uri("/api/admin/roles/refresh")
+                .headers(headers -> headers.setBearerAuth(token))
+                .exchange();
+    }
+}
@@ -0,0 +1,33 @@
+package com.fab1.backend;
+
+import com.fab1.backend.service.CustomUserDetailsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the whole application on H2: catches bean wiring errors that the
+ * SkySQL-backed tests can't run without credentials
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class ApplicationContextTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void singleUserDetailsServiceForSecurity() {
+        // ServerHttpSecurity needs exactly one password service to upgrade hashes
+        assertThat(context.getBeanNamesForType(ReactiveUserDetailsPasswordService.class))
+                .containsExactly("customUserDetailsService");
+        assertThat(context.getBean(ReactiveUserDetailsService.class))
+                .isInstanceOf(CustomUserDetailsService.class);
+    }
+}
@@ -3,6 +3,7 @@ package com.fab1.backend;
 import com.fab1.backend.dto.LoginRequest;
 import com.fab1.backend.dto.LoginResponse;
 import com.fab1.backend.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,10 +22,13 @@ public class AuthControllerTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @BeforeEach
     void setUp() {
         userRepository.findByUsername("testuser")
-                .flatMap(user -> userRepository.deleteById(user.getId()))
+                .flatMap(user -> userRepository.deleteWithRoles(user.getId()))
                 .block();
     }
 
@@ -69,4 +73,71 @@ public class AuthControllerTest {
                     assert resp.getToken() != null && !resp.getToken().isEmpty();
                 });
     }
-}
\ No newline at end of file
+
+    @Test
+    void loginCostsExactlyOneReadQuery() {
+        LoginRequest registerRequest = new LoginRequest("testuser", "password123");
+        webTestClient.post()
+                .uri("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(registerRequest)
+                .exchange()
+                .expectStatus().isOk();
+
+        double before = userWithRolesQueries();
+
+        webTestClient.post()
+                .uri("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(registerRequest)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(LoginResponse.class)
+                .value(resp -> {
+                    assert resp.isSuccess();
+                });
+
+        assert userWithRolesQueries() - before == 1.0;
+    }
+
+    @Test
+    void loginOutcomesAreTimedByReason() {
+        double before = loginCount("bad_credentials");
+
+        webTestClient.post()
+                .uri("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new LoginRequest("testuser", "wrong-password"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(LoginResponse.class)
+                .value(resp -> {
+                    assert !resp.isSuccess();
+                    assert "Identifiants incorrects".equals(resp.getMessage());
+                });
+
+        assert loginCount("bad_credentials") - before == 1.0;
+    }
+
+    @Test
+    void unauthorizedBodyIsValidJsonWithEscapedPath() {
+        webTestClient.get()
+                .uri("/api/auth/me?x=1")
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Non autorisé")
+                .jsonPath("$.message").isEqualTo("Token JWT manquant ou invalide")
+                .jsonPath("$.timestamp").isNumber()
+                .jsonPath("$.path").isEqualTo("/api/auth/me");
+    }
+
+    private double loginCount(String outcome) {
+        return meterRegistry.get("auth.login").tag("outcome", outcome).timer().count();
+    }
+
+    private double userWithRolesQueries() {
+        return meterRegistry.get("auth.db.queries").tag("query", "user_with_roles").counter().count();
+    }
+}
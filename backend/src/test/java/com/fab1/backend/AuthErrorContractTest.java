@@ -0,0 +1,88 @@
+package com.fab1.backend;
+
+import com.fab1.backend.dto.LoginRequest;
+import com.fab1.backend.dto.LoginResponse;
+import com.fab1.backend.exception.InvalidCredentialsException;
+import com.fab1.backend.exception.UserAlreadyExistsException;
+import com.fab1.backend.service.AuthService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * What the SPA (frontend/src/stores/auth.js) relies on: refused credentials and taken
+ * usernames are 200 with success=false, anything unexpected is a non-2xx status so
+ * it lands in the "server" branch rather than the credentials one.
+ */
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("h2")
+class AuthErrorContractTest {
+
+    private static final LoginRequest REQUEST = new LoginRequest("contract-user", "password123");
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private AuthService authService;
+
+    @Test
+    void badCredentialsAreOkWithSuccessFalse() {
+        when(authService.authenticate(any())).thenReturn(Mono.error(InvalidCredentialsException.WRONG_PASSWORD));
+
+        post("/api/auth/login")
+                .expectStatus().isOk()
+                .expectBody(LoginResponse.class)
+                .value(response -> {
+                    assertThat(response.isSuccess()).isFalse();
+                    assertThat(response.getMessage()).isEqualTo("Identifiants incorrects");
+                });
+    }
+
+    @Test
+    void takenUsernameIsOkWithSuccessFalse() {
+        when(authService.register(any())).thenReturn(Mono.error(UserAlreadyExistsException.INSTANCE));
+
+        post("/api/auth/register")
+                .expectStatus().isOk()
+                .expectBody(LoginResponse.class)
+                .value(response -> assertThat(response.isSuccess()).isFalse());
+    }
+
+    @Test
+    void unexpectedLoginErrorIsAServerError() {
+        when(authService.authenticate(any())).thenReturn(Mono.error(new IllegalStateException("base indisponible")));
+
+        post("/api/auth/login")
+                .expectStatus().is5xxServerError()
+                .expectBody(LoginResponse.class)
+                .value(response -> assertThat(response.getMessage()).isEqualTo("Erreur serveur"));
+    }
+
+    @Test
+    void unexpectedRegisterErrorIsAServerError() {
+        when(authService.register(any())).thenReturn(Mono.error(new IllegalStateException("base indisponible")));
+
+        post("/api/auth/register")
+                .expectStatus().is5xxServerError();
+    }
+
+    private WebTestClient.ResponseSpec post(String uri) {
+        return webTestClient.post()
+                .uri(uri)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(REQUEST)
+                .exchange();
+    }
+}
@@ -0,0 +1,231 @@
+package com.fab1.backend;
+
+import com.fab1.backend.dto.LoginRequest;
+import com.fab1.backend.dto.LoginResponse;
+import com.fab1.backend.service.RoleCatalog;
+import com.fab1.backend.service.SigningKeyService;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Closed-loop load on /login, /register and /me against the real server (Netty,
+ * security filters, hashing pool) backed by in-memory H2. Each scenario keeps
+ * load.concurrency requests in flight for load.duration seconds after a warm-up,
+ * then prints throughput and p50/p95/p99/p99.9 and appends a row to load.output (CSV).
+ *
+ * Run: mvn -Pload-test test [-Dload.concurrency=64 -Dload.duration=20]
+ * Throughput per core count: load-test/scale.sh
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AuthLoadTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 64);
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("load.duration", 20));
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("load.warmup", 5));
+    private static final int USERS = Integer.getInteger("load.users", 200);
+    private static final Path OUTPUT = Path.of(System.getProperty("load.output", "target/load-test/results.csv"));
+    private static final String PASSWORD = "load-test-password";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private RoleCatalog roleCatalog;
+
+    @Autowired
+    private SigningKeyService signingKeyService;
+
+    private ConnectionProvider connections;
+    private WebClient client;
+    private List<String> tokens;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    @BeforeAll
+    void setUp() {
+        connections = ConnectionProvider.builder("load-test")
+                .maxConnections(CONCURRENCY)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        client = WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .build();
+
+        // Seeding and key creation run in the background on startup
+        signingKeyService.loaded().block();
+        awaitRole("USER");
+
+        // Accounts used by the login and /me scenarios
+        tokens = Flux.range(0, USERS)
+                .flatMap(i -> register("load-" + runId + "-user-" + i), 8)
+                .map(LoginResponse::getToken)
+                .collectList()
+                .block();
+        assertEquals(USERS, tokens.size(), "comptes de test non créés");
+    }
+
+    /**
+     * Open keep-alive connections would hold the server's graceful shutdown until its timeout
+     */
+    @AfterAll
+    void tearDown() {
+        connections.disposeLater().block(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void login() throws IOException {
+        run("login", i -> login("load-" + runId + "-user-" + (i % USERS)));
+    }
+
+    @Test
+    void register() throws IOException {
+        run("register", i -> register("load-" + runId + "-new-" + i));
+    }
+
+    @Test
+    void me() throws IOException {
+        run("me", i -> client.get()
+                .uri("/api/auth/me")
+                .headers(headers -> headers.setBearerAuth(tokens.get((int) (i % USERS))))
+                .retrieve()
+                .bodyToMono(String.class));
+    }
+
+    private void run(String scenario, LongFunction<Mono<?>> request) throws IOException {
+        AtomicLong sequence = new AtomicLong();
+
+        // Warm-up: JIT, connection pool, caches; nothing recorded
+        drive(request, sequence, WARMUP, null, new AtomicLong());
+
+        Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+        AtomicLong errors = new AtomicLong();
+        long start = System.nanoTime();
+        drive(request, sequence, DURATION, latencies, errors);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        report(scenario, latencies, errors.get(), seconds);
+    }
+
+    /**
+     * Keeps CONCURRENCY requests in flight until the deadline, each slot issuing its next request as soon as one completes
+     */
+    private void drive(LongFunction<Mono<?>> request, AtomicLong sequence, Duration duration,
+                       Histogram latencies, AtomicLong errors) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        Flux.range(0, CONCURRENCY)
+                .flatMap(slot -> Mono.defer(() -> {
+                            long sent = System.nanoTime();
+                            return request.apply(sequence.getAndIncrement())
+                                    .then(Mono.fromRunnable(() -> record(latencies, sent)))
+                                    .onErrorResume(error -> {
+                                        errors.incrementAndGet();
+                                        return Mono.empty();
+                                    });
+                        })
+                        .repeat(() -> System.nanoTime() < deadline), CONCURRENCY)
+                .blockLast(duration.plusMinutes(1));
+    }
+
+    private static void record(Histogram latencies, long sent) {
+        if (latencies != null) {
+            latencies.recordValue(System.nanoTime() - sent);
+        }
+    }
+
+    private Mono<LoginResponse> login(String username) {
+        return post("/api/auth/login", username);
+    }
+
+    private Mono<LoginResponse> register(String username) {
+        return post("/api/auth/register", username);
+    }
+
+    private Mono<LoginResponse> post(String uri, String username) {
+        return client.post()
+                .uri(uri)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new LoginRequest(username, PASSWORD))
+                .retrieve()
+                .bodyToMono(LoginResponse.class)
+                .flatMap(response -> response.isSuccess()
+                        ? Mono.just(response)
+                        : Mono.error(new IllegalStateException(response.getMessage())));
+    }
+
+    private void awaitRole(String name) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (roleCatalog.findByName(name).isEmpty()) {
+            assertTrue(System.nanoTime() < deadline, "rôle " + name + " jamais chargé");
+            roleCatalog.refresh().block();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static void report(String scenario, Histogram latencies, long errors, double seconds) throws IOException {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        long requests = latencies.getTotalCount();
+        double throughput = requests / seconds;
+
+        System.out.printf(Locale.ROOT,
+                "%n[load] %s: %d cpus, %d concurrent, %d ok, %d errors, %.1f req/s%n"
+                        + "[load] %s latency ms: p50=%.2f p95=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                scenario, cpus, CONCURRENCY, requests, errors, throughput,
+                scenario, millis(latencies, 50), millis(latencies, 95), millis(latencies, 99),
+                millis(latencies, 99.9), latencies.getMaxValue() / 1e6);
+
+        Files.createDirectories(OUTPUT.toAbsolutePath().getParent());
+        if (Files.notExists(OUTPUT)) {
+            Files.writeString(OUTPUT,
+                    "timestamp,scenario,cpus,concurrency,requests,errors,throughput_rps,p50_ms,p95_ms,p99_ms,p999_ms,max_ms\n");
+        }
+        Files.writeString(OUTPUT, String.format(Locale.ROOT,
+                        "%s,%s,%d,%d,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                        Instant.now(), scenario, cpus, CONCURRENCY, requests, errors, throughput,
+                        millis(latencies, 50), millis(latencies, 95), millis(latencies, 99),
+                        millis(latencies, 99.9), latencies.getMaxValue() / 1e6),
+                StandardOpenOption.APPEND);
+    }
+
+    private static double millis(Histogram latencies, double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1e6;
+    }
+}
@@ -0,0 +1,36 @@
+package com.fab1.backend;
+
+import com.fab1.backend.config.CalibratedPasswordEncoder;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CalibratedPasswordEncoderTest {
+
+    @Test
+    void calibrationStaysWithinBounds() {
+        assertEquals(4, CalibratedPasswordEncoder.calibrate(Duration.ZERO, 4, 6).getCost());
+        assertEquals(6, CalibratedPasswordEncoder.calibrate(Duration.ofMinutes(1), 4, 6).getCost());
+    }
+
+    @Test
+    void flagsHashesWithAnotherCostInBothDirections() {
+        CalibratedPasswordEncoder encoder = new CalibratedPasswordEncoder(5);
+
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+        assertFalse(encoder.upgradeEncoding("not-a-bcrypt-hash"));
+    }
+
+    @Test
+    void readsCostFromHash() {
+        assertEquals(4, CalibratedPasswordEncoder.costOf(new BCryptPasswordEncoder(4).encode("secret")));
+        assertEquals(-1, CalibratedPasswordEncoder.costOf(null));
+    }
+}
@@ -0,0 +1,171 @@
+package com.fab1.backend;
+
+import com.fab1.backend.config.DataInitializer;
+import com.fab1.backend.config.SeedProperties;
+import com.fab1.backend.model.Role;
+import com.fab1.backend.model.User;
+import com.fab1.backend.repository.RoleRepository;
+import com.fab1.backend.repository.UserRepository;
+import com.fab1.backend.service.PasswordHashingService;
+import com.fab1.backend.service.RoleCatalog;
+import com.fab1.backend.service.SchemaMigrator;
+import com.fab1.backend.service.UserCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The startup seed against H2, with seed properties of its own: which accounts are
+ * inserted, with which roles, and where the hashing runs.
+ */
+// Its own database, with usernames compared like MariaDB's default collation does
+@SpringBootTest(properties = "spring.r2dbc.url=r2dbc:h2:mem:///seedtest;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;"
+        + "IGNORECASE=TRUE;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("h2")
+class DataInitializerTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private RoleCatalog roleCatalog;
+
+    @Autowired
+    private UserCounter userCounter;
+
+    @Autowired
+    private SchemaMigrator schemaMigrator;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired
+    private DataInitializer dataInitializer;
+
+    private final PasswordHashingService passwordHashingService = mock(PasswordHashingService.class);
+
+    // One entry per encode call: was a transaction open around it
+    private final Queue<Boolean> hashedInTransaction = new ConcurrentLinkedQueue<>();
+
+    private String tag;
+    private Role user;
+    private Role admin;
+
+    @BeforeEach
+    void setUp() {
+        awaitSeed(dataInitializer);
+        tag = "seed" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        user = roleCatalog.findByName("USER").orElseThrow();
+        admin = roleCatalog.findByName("ADMIN").orElseThrow();
+
+        when(passwordHashingService.encode(anyString())).thenAnswer(invocation -> {
+            String raw = invocation.getArgument(0);
+            return TransactionSynchronizationManager.forCurrentTransaction()
+                    .map(TransactionSynchronizationManager::isActualTransactionActive)
+                    .onErrorReturn(NoTransactionException.class, false)
+                    .doOnNext(hashedInTransaction::add)
+                    .thenReturn("{noop}" + raw + "-" + UUID.randomUUID());
+        });
+    }
+
+    @Test
+    void caseVariantOfAnExistingAccountIsLeftAlone() {
+        userRepository.insertWithRoles(user(tag + "admin", "{noop}existing", Set.of(admin))).block();
+
+        DataInitializer.Status status = seed(
+                account(tag.toUpperCase() + "ADMIN", "other"),
+                account(tag + "new", "secret"));
+
+        assertThat(status.created()).isEqualTo(1);
+        // Only the new account's password was hashed
+        assertThat(hashedInTransaction).hasSize(1);
+        User existing = userRepository.findByUsernameWithRoles(tag + "admin").block();
+        assertThat(existing.getPassword()).isEqualTo("{noop}existing");
+        assertThat(existing.getRoles()).containsExactly(admin);
+        assertThat(userRepository.findByUsernameWithRoles(tag + "new").block().getRoles()).containsExactly(user);
+    }
+
+    @Test
+    void passwordsAreHashedOnceEachAndOutsideTheTransaction() {
+        // Accounts with the same seed password share its hash (documented on DataInitializer)
+        DataInitializer.Status status = seed(
+                account(tag + "a", "first"),
+                account(tag + "b", "first"),
+                account(tag + "c", "second"));
+
+        assertThat(status.created()).isEqualTo(3);
+        assertThat(hashedInTransaction).containsExactly(false, false);
+        assertThat(userRepository.findByUsername(tag + "a").block().getPassword())
+                .isEqualTo(userRepository.findByUsername(tag + "b").block().getPassword());
+    }
+
+    @Test
+    void rolesGoToTheInsertedUsersOnly() {
+        // Same hash as the new accounts: only the ids the insert returned get roles
+        userRepository.insertWithRoles(user(tag + "existing", "{noop}b", Set.of(admin))).block();
+
+        List<User> inserted = userRepository.insertAllIgnoringDuplicates(List.of(
+                user(tag + "existing", "{noop}b", Set.of(user)),
+                user(tag + "new1", "{noop}b", Set.of(user)),
+                user(tag + "new2", "{noop}b", Set.of(user, admin)))).collectList().block();
+
+        assertThat(inserted).extracting(User::getUsername).containsExactlyInAnyOrder(tag + "new1", tag + "new2");
+        assertThat(inserted).allSatisfy(created -> assertThat(created.getId()).isNotNull());
+        assertThat(userRepository.findByUsernameWithRoles(tag + "existing").block().getRoles()).containsExactly(admin);
+        assertThat(userRepository.findByUsernameWithRoles(tag + "new1").block().getRoles()).containsExactly(user);
+        assertThat(userRepository.findByUsernameWithRoles(tag + "new2").block().getRoles())
+                .containsExactlyInAnyOrder(user, admin);
+    }
+
+    private DataInitializer.Status seed(SeedProperties.SeedUser... accounts) {
+        SeedProperties properties = new SeedProperties(true, 500,
+                List.of(new SeedProperties.SeedRole("USER", "Utilisateur standard")),
+                List.of(accounts),
+                new SeedProperties.Generated(0, "perf-user-", "perf-password", List.of("USER")));
+        DataInitializer initializer = new DataInitializer(properties, userRepository, roleRepository, roleCatalog,
+                passwordHashingService, userCounter, schemaMigrator, transactionalOperator);
+        initializer.initialize();
+        return awaitSeed(initializer);
+    }
+
+    private static DataInitializer.Status awaitSeed(DataInitializer initializer) {
+        return Mono.fromSupplier(initializer::getStatus)
+                .filter(DataInitializer.Status::done)
+                .repeatWhenEmpty(attempts -> attempts.delayElements(Duration.ofMillis(50)))
+                .block(Duration.ofSeconds(30));
+    }
+
+    private static SeedProperties.SeedUser account(String username, String password) {
+        return new SeedProperties.SeedUser(username, password, true, List.of("USER"));
+    }
+
+    private static User user(String username, String password, Set<Role> roles) {
+        return User.builder()
+                .username(username)
+                .password(password)
+                .enabled(true)
+                .roles(roles)
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.fab1.backend;
+
+import com.fab1.backend.config.SecurityConfig;
+import com.fab1.backend.model.TokenPrincipal;
+import com.fab1.backend.model.VerifiedToken;
+import com.fab1.backend.repository.UserRepository;
+import com.fab1.backend.service.AccountStatusService;
+import com.fab1.backend.service.AuthMetrics;
+import com.fab1.backend.service.JwtService;
+import com.fab1.backend.service.RevokedTokenRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The JWT filter in its two modes: principal loaded from the database, or built from
+ * the claims with only the account status checked
+ */
+class JwtAuthenticationFilterModesTest {
+
+    private static final VerifiedToken TOKEN = new VerifiedToken(
+            "jti-1", "alice", List.of("ROLE_ADMIN"), 7L, Instant.now().plusSeconds(600));
+
+    private final JwtService jwtService = mock(JwtService.class);
+    private final ReactiveUserDetailsService userDetailsService = mock(ReactiveUserDetailsService.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RevokedTokenRegistry revokedTokenRegistry = mock(RevokedTokenRegistry.class);
+    private final AccountStatusService accountStatusService =
+            new AccountStatusService(userRepository, new SimpleMeterRegistry(), 60_000, 1_000);
+
+    @BeforeEach
+    void setUp() {
+        when(jwtService.verify("token")).thenReturn(Mono.just(TOKEN));
+        when(userRepository.findEnabledById(7L)).thenReturn(Mono.just(true));
+        when(userDetailsService.findByUsername("alice")).thenReturn(Mono.just(
+                User.withUsername("alice").password("hash").authorities("ROLE_USER").build()));
+    }
+
+    @Test
+    void statelessModeBuildsThePrincipalFromTheClaims() {
+        Authentication authentication = authenticate(filter(true));
+
+        assertThat(authentication.getPrincipal()).isEqualTo(new TokenPrincipal("alice", 7L));
+        assertThat(authentication.getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_ADMIN");
+        verify(userDetailsService, never()).findByUsername(anyString());
+    }
+
+    @Test
+    void statelessModeRejectsAnAccountMarkedInactive() {
+        WebFilter filter = filter(true);
+        assertThat(authenticate(filter)).isNotNull();
+
+        accountStatusService.markInactive(7L);
+
+        assertThat(authenticate(filter)).isNull();
+    }
+
+    @Test
+    void statelessModeRejectsADeletedAccount() {
+        when(userRepository.findEnabledById(7L)).thenReturn(Mono.empty());
+
+        assertThat(authenticate(filter(true))).isNull();
+    }
+
+    @Test
+    void databaseModeLoadsTheUser() {
+        Authentication authentication = authenticate(filter(false));
+
+        assertThat(authentication.getName()).isEqualTo("alice");
+        // The stored roles win over the ones in the token
+        assertThat(authentication.getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER");
+        verify(userRepository, never()).findEnabledById(anyLong());
+    }
+
+    private WebFilter filter(boolean stateless) {
+        return new SecurityConfig.JwtAuthenticationFilter(jwtService, userDetailsService, accountStatusService,
+                revokedTokenRegistry, new AuthMetrics(new SimpleMeterRegistry()), stateless);
+    }
+
+    /**
+     * The authentication the downstream chain sees, null when the request goes on anonymous
+     */
+    private static Authentication authenticate(WebFilter filter) {
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+        WebFilterChain chain = exchange -> ReactiveSecurityContextHolder.getContext()
+                .doOnNext(context -> seen.set(context.getAuthentication()))
+                .then();
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/api/auth/me").header("Authorization", "Bearer token"));
+        filter.filter(exchange, chain).block();
+        return seen.get();
+    }
+}
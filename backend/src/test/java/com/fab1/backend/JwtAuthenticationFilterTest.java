@@ -0,0 +1,99 @@
+package com.fab1.backend;
+
+import com.fab1.backend.dto.LoginRequest;
+import com.fab1.backend.repository.RoleRepository;
+import com.fab1.backend.service.AuthService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The JWT filter as the running application wires it, end to end through WebTestClient
+ */
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("h2")
+class JwtAuthenticationFilterTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void waitForRoles() {
+        // Roles are seeded in the background once the context is up
+        roleRepository.findByName("USER")
+                .repeatWhenEmpty(attempts -> attempts.delayElements(Duration.ofMillis(50)))
+                .block(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void tokenIsVerifiedOncePerRequest() {
+        String token = registerAndGetToken();
+        long before = verifications();
+
+        me(token).expectStatus().isOk();
+
+        assertThat(verifications() - before).isEqualTo(1);
+    }
+
+    @Test
+    void tokenIsRefusedAfterLogout() {
+        String token = registerAndGetToken();
+
+        webTestClient.post().uri("/api/auth/logout")
+                .headers(headers -> headers.setBearerAuth(token))
+                .exchange()
+                .expectStatus().isOk();
+
+        me(token).expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void tokenIsRefusedAfterAccountDeletion() {
+        String token = registerAndGetToken();
+
+        webTestClient.delete().uri("/api/auth/delete-account")
+                .headers(headers -> headers.setBearerAuth(token))
+                .exchange()
+                .expectStatus().isOk();
+
+        me(token).expectStatus().isUnauthorized();
+    }
+
+    private WebTestClient.ResponseSpec me(String token) {
+        return webTestClient.get().uri("/api/auth/me")
+                .headers(headers -> headers.setBearerAuth(token))
+                .exchange();
+    }
+
+    private String registerAndGetToken() {
+        String username = "filter-" + UUID.randomUUID().toString().substring(0, 8);
+        return authService.register(new LoginRequest(username, "password123")).block().getToken();
+    }
+
+    private long verifications() {
+        return meterRegistry.find("auth.token.verify").timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+}
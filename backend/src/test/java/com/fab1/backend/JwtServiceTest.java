@@ -0,0 +1,139 @@
+package com.fab1.backend;
+
+import com.fab1.backend.model.Role;
+import com.fab1.backend.model.SigningKey;
+import com.fab1.backend.model.User;
+import com.fab1.backend.model.VerifiedToken;
+import com.fab1.backend.service.JwtService;
+import com.fab1.backend.service.SigningKeyRing;
+import com.fab1.backend.service.VerifiedTokenCache;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.InvalidKeyException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtServiceTest {
+
+    private static final String KID = "test-key";
+
+    private final SigningKeyRing keyRing = ringOf(SigningKey.generate(KID, 0));
+    private final JwtService jwtService = new JwtService(60_000L, keyRing, VerifiedTokenCache.disabled());
+
+    @Test
+    void verifyReturnsEverythingFromOneParse() {
+        User user = User.builder()
+                .id(42L)
+                .username("alice")
+                .password("ignored")
+                .roles(Set.of(new Role("USER")))
+                .build();
+
+        String token = jwtService.generateToken(user).block();
+
+        VerifiedToken verified = jwtService.verify(token).block();
+        assertEquals("alice", verified.getSubject());
+        assertEquals(42L, verified.getUserId());
+        assertEquals(List.of("ROLE_USER"), verified.getRoles());
+        assertFalse(verified.isExpired());
+    }
+
+    @Test
+    void verifyServesRepeatedTokenFromCache() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        JwtService cached = new JwtService(60_000L, keyRing, new VerifiedTokenCache(true, 100, registry));
+        String token = cached.generateToken(User.builder().id(7L).username("carol").build()).block();
+
+        VerifiedToken first = cached.verify(token).block();
+        VerifiedToken second = cached.verify(token).block();
+
+        assertSame(first, second);
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "jwt.verified").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void verifyRejectsTokenSignedWithAnotherKey() {
+        // Same kid, different key pair
+        JwtService other = new JwtService(60_000L, ringOf(SigningKey.generate(KID, 0)), VerifiedTokenCache.disabled());
+        String token = other.generateToken(User.builder().id(1L).username("bob").build()).block();
+
+        StepVerifier.create(jwtService.verify(token))
+                .expectError(SignatureException.class)
+                .verify();
+    }
+
+    @Test
+    void verifyRejectsExpiredToken() {
+        JwtService expired = new JwtService(-1_000L, keyRing, VerifiedTokenCache.disabled());
+        String token = expired.generateToken(User.builder().id(1L).username("bob").build()).block();
+
+        StepVerifier.create(jwtService.verify(token))
+                .expectError(ExpiredJwtException.class)
+                .verify();
+    }
+
+    @Test
+    void verifyRejectsUnknownKid() {
+        JwtService other = new JwtService(60_000L, ringOf(SigningKey.generate(0)), VerifiedTokenCache.disabled());
+        String token = other.generateToken(User.builder().id(1L).username("bob").build()).block();
+
+        StepVerifier.create(jwtService.verify(token))
+                .expectError(InvalidKeyException.class)
+                .verify();
+    }
+
+    @Test
+    void rotationSignsWithNewKeyAndStillVerifiesOldTokens() {
+        User user = User.builder().id(1L).username("dave").build();
+        String oldToken = jwtService.generateToken(user).block();
+
+        SigningKey previous = keyRing.current();
+        SigningKey next = SigningKey.generate(System.currentTimeMillis());
+        keyRing.replace(List.of(previous, next));
+        String newToken = jwtService.generateToken(user).block();
+
+        assertEquals(next.getKid(), keyRing.current().getKid());
+        assertEquals("dave", jwtService.verify(oldToken).block().getSubject());
+        assertEquals("dave", jwtService.verify(newToken).block().getSubject());
+    }
+
+    @Test
+    void generateTokenWaitsForTheFirstKeyLoad() {
+        SigningKeyRing loading = new SigningKeyRing();
+        JwtService early = new JwtService(60_000L, loading, VerifiedTokenCache.disabled());
+        SigningKey key = SigningKey.generate(KID, 0);
+
+        StepVerifier.create(early.generateToken(User.builder().id(1L).username("erin").build()))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(100))
+                .then(() -> loading.replace(List.of(key)))
+                .assertNext(token -> assertEquals("erin", early.verify(token).block().getSubject()))
+                .verifyComplete();
+    }
+
+    @Test
+    void pendingKeyIsPublishedButDoesNotSign() {
+        SigningKey pending = SigningKey.generate(System.currentTimeMillis() + 60_000);
+        keyRing.replace(List.of(keyRing.current(), pending));
+
+        assertEquals(KID, keyRing.current().getKid());
+        assertTrue(keyRing.getJwks().contains(pending.getKid()));
+    }
+
+    private static SigningKeyRing ringOf(SigningKey key) {
+        SigningKeyRing ring = new SigningKeyRing();
+        ring.replace(List.of(key));
+        return ring;
+    }
+}
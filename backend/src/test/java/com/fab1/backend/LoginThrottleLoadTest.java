@@ -0,0 +1,92 @@
+package com.fab1.backend;
+
+import com.fab1.backend.service.LoginThrottle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sustained credential stuffing against one account from one address, while a
+ * legitimate user logs in from elsewhere. The throttle sits in front of BCrypt,
+ * so the attack only gets a bounded number of hashes and the legitimate logins
+ * are never refused and keep their hash latency.
+ *
+ * Wall-clock bound, so it runs with the load tests only: mvn -Pload-test test.
+ * LoginThrottleTest covers the same limits deterministically.
+ */
+@Tag("load")
+class LoginThrottleLoadTest {
+
+    private static final long ATTACK_MILLIS = 2_000;
+
+    @Test
+    void sustainedAttackDoesNotDegradeLegitimateLogins() throws Exception {
+        LoginThrottle throttle = new LoginThrottle(new SimpleMeterRegistry(), 10, 5, 30, 20, 60_000, 10_000);
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(6);
+        String hash = encoder.encode("correct-password");
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong attackAttempts = new AtomicLong();
+        AtomicLong attackHashes = new AtomicLong();
+
+        int attackers = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(attackers);
+        for (int i = 0; i < attackers; i++) {
+            pool.submit(() -> {
+                while (running.get()) {
+                    attackAttempts.incrementAndGet();
+                    if (throttle.tryAcquire("admin", "203.0.113.7") == 0) {
+                        attackHashes.incrementAndGet();
+                        encoder.matches("guess", hash);
+                    }
+                }
+            });
+        }
+
+        List<Long> legitLatencies = new ArrayList<>();
+        long refused = 0;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ATTACK_MILLIS);
+        int legitUser = 0;
+        while (System.nanoTime() < deadline) {
+            // Distinct users behind distinct addresses, a few logins each
+            String username = "user" + (legitUser / 3);
+            String address = "198.51.100." + (legitUser / 3 % 250);
+            legitUser++;
+
+            long start = System.nanoTime();
+            if (throttle.tryAcquire(username, address) != 0) {
+                refused++;
+                continue;
+            }
+            assertTrue(encoder.matches("correct-password", hash));
+            legitLatencies.add(System.nanoTime() - start);
+            Thread.sleep(20);
+        }
+
+        running.set(false);
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+
+        legitLatencies.sort(null);
+        long p99 = legitLatencies.get((int) (legitLatencies.size() * 0.99));
+        System.out.printf("%n[load] throttle: %,d attempts, %,d reached BCrypt | legit: %d logins, p99 %.1f ms%n",
+                attackAttempts.get(), attackHashes.get(), legitLatencies.size(), p99 / 1e6);
+
+        assertEquals(0, refused);
+        // Burst of 10 plus the refill over the attack window, not one hash per attempt
+        assertTrue(attackHashes.get() <= 12, "attack reached BCrypt " + attackHashes.get() + " times");
+        assertTrue(attackAttempts.get() > 1_000 * attackHashes.get());
+    }
+}
@@ -0,0 +1,93 @@
+package com.fab1.backend;
+
+import com.fab1.backend.service.LoginThrottle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bucket limits without timing: one token per minute, so nothing refills while a test runs.
+ */
+class LoginThrottleTest {
+
+    private static final String ATTACKER = "203.0.113.7";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void concurrentAttemptsOnOneAccountGetExactlyTheBurst() throws Exception {
+        LoginThrottle throttle = throttle(10, 10_000);
+        AtomicInteger allowed = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] attackers = new Future<?>[8];
+            for (int i = 0; i < attackers.length; i++) {
+                attackers[i] = pool.submit(() -> {
+                    for (int attempt = 0; attempt < 100; attempt++) {
+                        if (throttle.tryAcquire("admin", ATTACKER) == 0) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            for (Future<?> attacker : attackers) {
+                attacker.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(10, allowed.get());
+        assertEquals(790, registry.get("auth.login.throttled").tag("key", "username").counter().count());
+    }
+
+    @Test
+    void usernamesShareABucketWhateverTheirCase() {
+        LoginThrottle throttle = throttle(2, 10_000);
+
+        assertEquals(0, throttle.tryAcquire("alice", ATTACKER));
+        assertEquals(0, throttle.tryAcquire("Alice", ATTACKER));
+        assertTrue(throttle.tryAcquire("ALICE", ATTACKER) > 0);
+    }
+
+    @Test
+    void floodFromOneAddressLeavesTheVictimItsOwnLogins() {
+        LoginThrottle throttle = throttle(10, 5);
+
+        int allowed = 0;
+        for (int attempt = 0; attempt < 100; attempt++) {
+            if (throttle.tryAcquire("victim", ATTACKER) == 0) {
+                allowed++;
+            }
+        }
+
+        // Stopped by the address bucket before the username bucket was touched
+        assertEquals(5, allowed);
+        assertEquals(95, registry.get("auth.login.throttled").tag("key", "address").counter().count());
+        for (int login = 0; login < 5; login++) {
+            assertEquals(0, throttle.tryAcquire("victim", "198.51.100.1"));
+        }
+    }
+
+    @Test
+    void retryAfterIsTheTimeToTheNextToken() {
+        LoginThrottle throttle = throttle(1, 10_000);
+
+        assertEquals(0, throttle.tryAcquire("bob", ATTACKER));
+        long retryAfter = throttle.tryAcquire("bob", ATTACKER);
+        assertTrue(retryAfter > 55 && retryAfter <= 60, "Retry-After " + retryAfter);
+    }
+
+    private LoginThrottle throttle(int usernameCapacity, int addressCapacity) {
+        return new LoginThrottle(registry, usernameCapacity, 1, addressCapacity, 1, 600_000, 100_000);
+    }
+}
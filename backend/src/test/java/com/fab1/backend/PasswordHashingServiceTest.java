@@ -0,0 +1,99 @@
+package com.fab1.backend;
+
+import com.fab1.backend.exception.HashingCapacityExceededException;
+import com.fab1.backend.service.PasswordHashingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHashingServiceTest {
+
+    @Test
+    void rejectsFastWhenPoolAndQueueAreFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordHashingService service = new PasswordHashingService(blockingEncoder(release), registry, 1, 1);
+
+        try {
+            // One running, one queued: the third must be refused right away
+            Mono<String> running = service.encode("a").cache();
+            Mono<String> queued = service.encode("b").cache();
+            running.subscribe();
+            queued.subscribe();
+
+            StepVerifier.create(service.encode("c"))
+                    .expectError(HashingCapacityExceededException.class)
+                    .verify();
+            assertEquals(1.0, registry.get("auth.hashing.rejected").counter().count());
+
+            release.countDown();
+            StepVerifier.create(running).expectNext("hash:a").verifyComplete();
+            StepVerifier.create(queued).expectNext("hash:b").verifyComplete();
+        } finally {
+            release.countDown();
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void hashesOffTheCallerThread() {
+        // Recorded inside the encoder: the continuation may run on the caller if the hash is already done
+        AtomicReference<String> hashingThread = new AtomicReference<>();
+        PasswordEncoder encoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                hashingThread.set(Thread.currentThread().getName());
+                return "hash:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                hashingThread.set(Thread.currentThread().getName());
+                return encodedPassword.equals("hash:" + rawPassword);
+            }
+        };
+        PasswordHashingService service = new PasswordHashingService(encoder, new SimpleMeterRegistry(), 1, 1);
+
+        try {
+            StepVerifier.create(service.matches("x", "hash:x"))
+                    .expectNext(true)
+                    .verifyComplete();
+            assertTrue(hashingThread.get().startsWith("password-hashing-"), hashingThread.get());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private static PasswordEncoder blockingEncoder(CountDownLatch release) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                await(release);
+                return "hash:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                await(release);
+                return encodedPassword.equals("hash:" + rawPassword);
+            }
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
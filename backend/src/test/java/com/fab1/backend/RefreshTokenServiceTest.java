@@ -0,0 +1,60 @@
+package com.fab1.backend;
+
+import com.fab1.backend.dto.LoginRequest;
+import com.fab1.backend.dto.LoginResponse;
+import com.fab1.backend.exception.InvalidRefreshTokenException;
+import com.fab1.backend.repository.RoleRepository;
+import com.fab1.backend.service.AuthService;
+import com.fab1.backend.service.RefreshTokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class RefreshTokenServiceTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Test
+    void reuseRevokesTheWholeFamily() {
+        // Roles are seeded in the background once the context is up
+        roleRepository.findByName("USER")
+                .repeatWhenEmpty(attempts -> attempts.delayElements(Duration.ofMillis(50)))
+                .block(Duration.ofSeconds(30));
+
+        LoginResponse login = authService.register(
+                new LoginRequest("refresh-" + UUID.randomUUID().toString().substring(0, 8), "password123"))
+                .block();
+        String first = login.getRefreshToken();
+        String second = refreshTokenService.refresh(first).block().getRefreshToken();
+
+        // Replaying the rotated token is rejected...
+        StepVerifier.create(refreshTokenService.refresh(first))
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(InvalidRefreshTokenException.class)
+                        .hasMessageContaining("déjà utilisé"))
+                .verify();
+
+        // ...and the revocation was committed: the legitimate successor is gone too
+        StepVerifier.create(refreshTokenService.refresh(second))
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(InvalidRefreshTokenException.class)
+                        .hasMessageContaining("inconnu"))
+                .verify();
+    }
+}
@@ -0,0 +1,92 @@
+package com.fab1.backend;
+
+import com.fab1.backend.model.RevokedToken;
+import com.fab1.backend.model.VerifiedToken;
+import com.fab1.backend.repository.RevokedTokenRepository;
+import com.fab1.backend.service.RevokedTokenRegistry;
+import com.fab1.backend.service.SchemaMigrator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The in-memory revocation list against a stubbed revoked_tokens table
+ */
+class RevokedTokenRegistryTest {
+
+    private final RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+
+    private RevokedTokenRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.insertIgnore(anyString(), anyLong())).thenReturn(Mono.just(1));
+        when(repository.deleteExpired(anyLong())).thenReturn(Mono.just(0));
+        when(repository.findActive(anyLong())).thenReturn(Flux.empty());
+        registry = new RevokedTokenRegistry(repository, mock(SchemaMigrator.class),
+                new SimpleMeterRegistry(), 1_000, 0.01);
+    }
+
+    @Test
+    void revokeIsEffectiveImmediately() {
+        VerifiedToken token = token("jti-1", Instant.now().plusSeconds(600));
+        assertThat(registry.isRevoked("jti-1")).isFalse();
+
+        registry.revoke(token).block();
+
+        assertThat(registry.isRevoked("jti-1")).isTrue();
+        assertThat(registry.isRevoked("jti-2")).isFalse();
+        verify(repository).insertIgnore("jti-1", token.getExpiresAt().toEpochMilli());
+    }
+
+    @Test
+    void refreshMergesRevocationsFromOtherInstances() {
+        long expiresAt = Instant.now().plusSeconds(600).toEpochMilli();
+        when(repository.findActive(anyLong())).thenReturn(Flux.fromIterable(List.of(
+                new RevokedToken("elsewhere-1", expiresAt),
+                new RevokedToken("elsewhere-2", expiresAt))));
+
+        assertThat(registry.refresh().block()).isEqualTo(2);
+
+        assertThat(registry.isRevoked("elsewhere-1")).isTrue();
+        assertThat(registry.isRevoked("elsewhere-2")).isTrue();
+    }
+
+    @Test
+    void refreshDropsExpiredIds() throws InterruptedException {
+        registry.revoke(token("short", Instant.now().plusMillis(100))).block();
+        assertThat(registry.isRevoked("short")).isTrue();
+
+        Thread.sleep(200);
+
+        assertThat(registry.refresh().block()).isZero();
+        assertThat(registry.isRevoked("short")).isFalse();
+    }
+
+    @Test
+    void expiredOrAnonymousTokensAreIgnored() {
+        registry.revoke(token("expired", Instant.now().minusSeconds(1))).block();
+        registry.revoke(token(null, Instant.now().plusSeconds(600))).block();
+
+        assertThat(registry.isRevoked("expired")).isFalse();
+        assertThat(registry.isRevoked(null)).isFalse();
+        verify(repository, never()).insertIgnore(anyString(), anyLong());
+    }
+
+    private static VerifiedToken token(String tokenId, Instant expiresAt) {
+        return new VerifiedToken(tokenId, "alice", List.of("ROLE_USER"), 1L, expiresAt);
+    }
+}
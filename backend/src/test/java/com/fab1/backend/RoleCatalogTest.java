@@ -0,0 +1,85 @@
+package com.fab1.backend;
+
+import com.fab1.backend.model.Role;
+import com.fab1.backend.repository.RoleRepository;
+import com.fab1.backend.service.RoleCatalog;
+import com.fab1.backend.service.SchemaMigrator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The role catalog against a stubbed roles table
+ */
+class RoleCatalogTest {
+
+    private static final Role USER = new Role(1L, "USER", null);
+    private static final Role ADMIN = new Role(2L, "ADMIN", null);
+    private static final Role MODERATOR = new Role(3L, "MODERATOR", null);
+
+    private final RoleRepository roleRepository = mock(RoleRepository.class);
+
+    private RoleCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new RoleCatalog(roleRepository, mock(SchemaMigrator.class));
+    }
+
+    @Test
+    void lookupsReadTheLoadedSnapshot() {
+        when(roleRepository.findAll()).thenReturn(Flux.just(USER, ADMIN));
+        catalog.refresh().block();
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(catalog.findByName("ADMIN")).contains(ADMIN);
+            assertThat(catalog.findById(1L)).contains(USER);
+        }
+        assertThat(catalog.findByName("MODERATOR")).isEmpty();
+
+        // Loaded once, every lookup after that is a map read
+        verify(roleRepository, times(1)).findAll();
+    }
+
+    @Test
+    void refreshSwapsTheWholeSnapshot() {
+        when(roleRepository.findAll()).thenReturn(Flux.just(USER, ADMIN), Flux.just(USER, MODERATOR));
+        catalog.refresh().block();
+        Collection<Role> before = catalog.all();
+
+        assertThat(catalog.refresh().block()).isEqualTo(2);
+
+        // Readers holding the previous snapshot keep a consistent view of it
+        assertThat(before).containsExactlyInAnyOrder(USER, ADMIN);
+        assertThat(catalog.all()).containsExactlyInAnyOrder(USER, MODERATOR);
+        assertThat(catalog.findByName("ADMIN")).isEmpty();
+        assertThat(catalog.findById(2L)).isEmpty();
+        assertThat(catalog.findById(3L)).contains(MODERATOR);
+    }
+
+    @Test
+    void unknownNameReloadsOnce() {
+        when(roleRepository.findAll()).thenReturn(Flux.just(USER), Flux.fromIterable(List.of(USER, MODERATOR)));
+        catalog.refresh().block();
+
+        assertThat(catalog.findByNameOrReload("USER").block()).isEqualTo(USER);
+        verify(roleRepository, times(1)).findAll();
+
+        // Created since the last refresh: found after a single reload
+        assertThat(catalog.findByNameOrReload("MODERATOR").block()).isEqualTo(MODERATOR);
+        verify(roleRepository, times(2)).findAll();
+
+        // Still unknown after the reload: empty, no retry loop
+        assertThat(catalog.findByNameOrReload("AUDITOR").blockOptional()).isEmpty();
+        verify(roleRepository, times(3)).findAll();
+    }
+}
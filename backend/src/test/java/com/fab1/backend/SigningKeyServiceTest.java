@@ -0,0 +1,99 @@
+package com.fab1.backend;
+
+import com.fab1.backend.model.JwtSigningKey;
+import com.fab1.backend.repository.JwtSigningKeyRepository;
+import com.fab1.backend.service.SchemaMigrator;
+import com.fab1.backend.service.SigningKeyRing;
+import com.fab1.backend.service.SigningKeyService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Several instances starting on an empty key table end up signing with the same key.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+// Empties the key table under the application's own ring
+@DirtiesContext
+class SigningKeyServiceTest {
+
+    private static final int INSTANCES = 4;
+
+    @Autowired
+    private JwtSigningKeyRepository repository;
+
+    @Autowired
+    private SchemaMigrator schemaMigrator;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @Value("${jwt.expiration}")
+    private long expiration;
+
+    @Test
+    void concurrentFirstStartsCreateOneKey() {
+        schemaMigrator.migrated().block();
+        repository.deleteAll().block();
+
+        CountDownLatch read = new CountDownLatch(INSTANCES);
+        List<SigningKeyRing> rings = Flux.range(0, INSTANCES)
+                .map(i -> new SigningKeyRing())
+                .collectList()
+                .block();
+        Flux.fromIterable(rings)
+                .flatMap(ring -> instance(ring, readingTogether(read)).refresh())
+                .blockLast(Duration.ofSeconds(30));
+
+        List<JwtSigningKey> keys = repository.findAll().collectList().block();
+        assertThat(keys).hasSize(1);
+        assertThat(rings).allSatisfy(ring ->
+                assertThat(ring.current().getKid()).isEqualTo(keys.get(0).getKid()));
+    }
+
+    private SigningKeyService instance(SigningKeyRing ring, JwtSigningKeyRepository instanceRepository) {
+        return new SigningKeyService(instanceRepository, ring, schemaMigrator, transactionalOperator,
+                secret, expiration, 604_800_000L, 900_000L);
+    }
+
+    /**
+     * The repository as one instance sees it: its first findAll() only returns once every
+     * instance has read the empty table, so all of them go on to create the first key
+     */
+    private JwtSigningKeyRepository readingTogether(CountDownLatch read) {
+        AtomicBoolean first = new AtomicBoolean(true);
+        return (JwtSigningKeyRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{JwtSigningKeyRepository.class},
+                (proxy, method, args) -> {
+                    Object result = method.invoke(repository, args);
+                    if (!method.getName().equals("findAll") || !first.compareAndSet(true, false)) {
+                        return result;
+                    }
+                    return ((Flux<?>) result).collectList()
+                            .doOnNext(rows -> read.countDown())
+                            .delayUntil(rows -> Mono.fromCallable(() -> read.await(10, TimeUnit.SECONDS))
+                                    .subscribeOn(Schedulers.boundedElastic()))
+                            .flatMapMany(Flux::fromIterable);
+                });
+    }
+}
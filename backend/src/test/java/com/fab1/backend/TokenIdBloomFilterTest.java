@@ -0,0 +1,45 @@
+package com.fab1.backend;
+
+import com.fab1.backend.service.TokenIdBloomFilter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenIdBloomFilterTest {
+
+    @Test
+    void neverMissesAnAddedId() {
+        TokenIdBloomFilter filter = TokenIdBloomFilter.create(10_000, 0.01);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String id = UUID.randomUUID().toString();
+            ids.add(id);
+            filter.add(id);
+        }
+
+        ids.forEach(id -> assertTrue(filter.mightContain(id), id));
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        TokenIdBloomFilter filter = TokenIdBloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(UUID.randomUUID().toString());
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+
+        double rate = (double) falsePositives / probes;
+        assertTrue(rate < 0.02, "taux de faux positifs: " + rate);
+    }
+}
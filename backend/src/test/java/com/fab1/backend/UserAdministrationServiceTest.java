@@ -0,0 +1,154 @@
+package com.fab1.backend;
+
+import com.fab1.backend.dto.UserPage;
+import com.fab1.backend.dto.UserSummary;
+import com.fab1.backend.model.User;
+import com.fab1.backend.repository.UserRepository;
+import com.fab1.backend.service.SchemaMigrator;
+import com.fab1.backend.service.UserAdministrationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Admin listing and export on H2: keyset pages, LIKE escaping, cursors, export demand.
+ * Every test works on its own username prefix, the in-memory database is shared.
+ */
+@SpringBootTest(properties = "auth.users.export-page-size=2")
+@ActiveProfiles("h2")
+class UserAdministrationServiceTest {
+
+    @Autowired
+    private UserAdministrationService service;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SchemaMigrator schemaMigrator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private String tag;
+
+    @BeforeEach
+    void setUp() {
+        schemaMigrator.migrated().block();
+        tag = "adm" + UUID.randomUUID().toString().substring(0, 8) + "-";
+    }
+
+    @Test
+    void prefixPagesFollowTheUsernameOrder() {
+        insert(tag + "u3", tag + "u1", tag + "u5", tag + "u2", tag + "u4");
+
+        UserPage first = service.listUsers(tag, null, 2).block();
+        UserPage second = service.listUsers(tag, first.getNextCursor(), 2).block();
+        UserPage last = service.listUsers(tag, second.getNextCursor(), 2).block();
+
+        assertThat(usernames(first)).containsExactly(tag + "u1", tag + "u2");
+        assertThat(usernames(second)).containsExactly(tag + "u3", tag + "u4");
+        assertThat(usernames(last)).containsExactly(tag + "u5");
+        assertThat(last.getNextCursor()).isNull();
+    }
+
+    @Test
+    void pagesWithoutPrefixFollowTheIdOrder() {
+        List<Long> ids = insert(tag + "b", tag + "a", tag + "c");
+
+        List<UserSummary> all = new ArrayList<>();
+        String cursor = null;
+        do {
+            UserPage page = service.listUsers(null, cursor, 2).block();
+            all.addAll(page.getUsers());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        List<Long> seen = all.stream().map(UserSummary::getId).toList();
+        assertThat(seen).isSorted().doesNotHaveDuplicates().containsSubsequence(ids);
+    }
+
+    @Test
+    void likeWildcardsInThePrefixAreLiteral() {
+        insert(tag + "_x", tag + "ax", tag + "%y", tag + "by");
+
+        assertThat(usernames(service.listUsers(tag + "_", null, 10).block())).containsExactly(tag + "_x");
+        assertThat(usernames(service.listUsers(tag + "%", null, 10).block())).containsExactly(tag + "%y");
+    }
+
+    @Test
+    void cursorsAreOpaqueAndChecked() {
+        insert(tag + "u1", tag + "u2");
+        String prefixCursor = service.listUsers(tag, null, 1).block().getNextCursor();
+
+        assertThat(prefixCursor).isNotNull().doesNotContain(tag);
+        // Raw position, garbage, a non numeric id, a cursor from the other ordering
+        for (String cursor : List.of("12", "pas un curseur", encode("id:abc"), prefixCursor)) {
+            StepVerifier.create(service.listUsers(null, cursor, 10))
+                    .expectError(ServerWebInputException.class)
+                    .verify();
+        }
+        StepVerifier.create(service.listUsers(tag, encode("id:1"), 10))
+                .expectError(ServerWebInputException.class)
+                .verify();
+    }
+
+    @Test
+    void exportQueriesPagesAtTheSubscriberPace() {
+        for (int i = 1; i <= 9; i++) {
+            insert(tag + "e" + i);
+        }
+        double before = pageQueries();
+
+        StepVerifier.create(service.exportUsers(tag), 0)
+                .thenRequest(1)
+                .expectNextCount(1)
+                // The first page, at most the next one: not the whole export up front
+                .then(() -> assertThat(pageQueries() - before).isLessThanOrEqualTo(2))
+                .thenRequest(Long.MAX_VALUE)
+                .expectNextCount(8)
+                .verifyComplete();
+
+        assertThat(pageQueries() - before).isEqualTo(5);
+    }
+
+    private List<Long> insert(String... usernames) {
+        return Flux.fromArray(usernames)
+                .concatMap(username -> userRepository.insertWithRoles(User.builder()
+                        .username(username)
+                        .password("{noop}unused")
+                        .enabled(true)
+                        .roles(Set.of())
+                        .build()))
+                .map(User::getId)
+                .collectList()
+                .block();
+    }
+
+    private double pageQueries() {
+        return meterRegistry.get("auth.db.queries").tag("query", "user_page").counter().count();
+    }
+
+    private static List<String> usernames(UserPage page) {
+        return page.getUsers().stream().map(UserSummary::getUsername).toList();
+    }
+
+    private static String encode(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,163 @@
+package com.fab1.backend;
+
+import com.fab1.backend.config.DataInitializer;
+import com.fab1.backend.dto.BulkOperationResult;
+import com.fab1.backend.model.Role;
+import com.fab1.backend.model.User;
+import com.fab1.backend.repository.UserRepository;
+import com.fab1.backend.service.CustomUserDetailsService;
+import com.fab1.backend.service.RoleCatalog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The set-based admin statements on H2: row lock, IN-list deletes, INSERT ... SELECT
+ * role assignments, and the counts reported back.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class UserBulkOperationsTest {
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleCatalog roleCatalog;
+
+    @Autowired
+    private DataInitializer dataInitializer;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    private String tag;
+    private Role user;
+    private Role admin;
+    private Role moderator;
+
+    @BeforeEach
+    void setUp() {
+        // Roles are seeded in the background once the context is up
+        Mono.fromSupplier(dataInitializer::getStatus)
+                .filter(DataInitializer.Status::done)
+                .repeatWhenEmpty(attempts -> attempts.delayElements(Duration.ofMillis(50)))
+                .block(Duration.ofSeconds(30));
+        tag = "bulk" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        user = roleCatalog.findByName("USER").orElseThrow();
+        admin = roleCatalog.findByName("ADMIN").orElseThrow();
+        moderator = roleCatalog.findByName("MODERATOR").orElseThrow();
+    }
+
+    @Test
+    void caseVariantsAreOneRequestedUser() {
+        insert(Set.of(user), tag + "alice");
+
+        BulkOperationResult result = userDetailsService.setUsersEnabled(
+                List.of(tag + "alice", tag.toUpperCase() + "ALICE", tag + "Alice", tag + "ghost"), false).block();
+
+        assertThat(result.getRequested()).isEqualTo(2);
+        assertThat(result.getAffected()).isEqualTo(1);
+        assertThat(result.getNotFound()).isEqualTo(1);
+        assertThat(userRepository.findByUsername(tag + "alice").block().isEnabled()).isFalse();
+    }
+
+    @Test
+    void deleteRemovesTheUsersAndTheirRoleRows() {
+        List<Long> ids = insert(Set.of(user, admin), tag + "a", tag + "b", tag + "kept");
+
+        BulkOperationResult result = userDetailsService.deleteUsers(List.of(tag + "a", tag + "b", tag + "ghost")).block();
+
+        assertThat(result.getAffected()).isEqualTo(2);
+        assertThat(result.getNotFound()).isEqualTo(1);
+        assertThat(userRepository.findExistingUsernames(List.of(tag + "a", tag + "b", tag + "kept")).collectList().block())
+                .containsExactly(tag + "kept");
+        assertThat(roleRows(ids.subList(0, 2))).isZero();
+        assertThat(roleRows(ids.subList(2, 3))).isEqualTo(2);
+    }
+
+    @Test
+    void assignRolesReplacesEveryRoleOfTheMatchedUsers() {
+        insert(Set.of(user), tag + "a", tag + "b");
+
+        BulkOperationResult result = userDetailsService.assignRoles(
+                List.of(tag + "a", tag + "b"), List.of("ADMIN", "MODERATOR")).block();
+
+        assertThat(result.getAffected()).isEqualTo(2);
+        assertThat(result.getRoleAssignments()).isEqualTo(4);
+        for (String username : List.of(tag + "a", tag + "b")) {
+            assertThat(userRepository.findByUsernameWithRoles(username).block().getRoles())
+                    .containsExactlyInAnyOrder(admin, moderator);
+        }
+    }
+
+    @Test
+    void bulkUpdateWaitsForTheRowsLockedByAConcurrentDelete() throws Exception {
+        insert(Set.of(user), tag + "a", tag + "b");
+        List<String> usernames = List.of(tag + "a", tag + "b");
+
+        // The delete keeps its transaction, and so its row locks, open for a while
+        CountDownLatch deleted = new CountDownLatch(1);
+        CompletableFuture<BulkOperationResult> delete = userDetailsService.deleteUsers(usernames)
+                .doOnSuccess(result -> deleted.countDown())
+                .delayUntil(result -> Mono.delay(Duration.ofMillis(300)))
+                .as(transactionalOperator::transactional)
+                .toFuture();
+        assertThat(deleted.await(10, TimeUnit.SECONDS)).isTrue();
+
+        BulkOperationResult disabled = userDetailsService.setUsersEnabled(usernames, false)
+                .block(Duration.ofSeconds(10));
+
+        // A plain read would still see both rows and report them as updated
+        assertThat(delete.get(10, TimeUnit.SECONDS).getAffected()).isEqualTo(2);
+        assertThat(disabled.getAffected()).isZero();
+        assertThat(disabled.getNotFound()).isEqualTo(2);
+    }
+
+    private List<Long> insert(Set<Role> roles, String... usernames) {
+        return Flux.fromArray(usernames)
+                .concatMap(username -> userRepository.insertWithRoles(user(username, roles)))
+                .map(User::getId)
+                .collectList()
+                .block();
+    }
+
+    private static User user(String username, Set<Role> roles) {
+        return User.builder()
+                .username(username)
+                .password("{noop}unused")
+                .enabled(true)
+                .roles(roles)
+                .build();
+    }
+
+    private long roleRows(List<Long> userIds) {
+        return databaseClient.sql("SELECT COUNT(*) AS assignments FROM user_roles WHERE user_id IN (:userIds)")
+                .bind("userIds", userIds)
+                .map(row -> ((Number) row.get("assignments")).longValue())
+                .one()
+                .block();
+    }
+}
@@ -0,0 +1,137 @@
+package com.fab1.backend;
+
+import com.fab1.backend.dto.UserCounts;
+import com.fab1.backend.model.Role;
+import com.fab1.backend.model.User;
+import com.fab1.backend.repository.UserRepository;
+import com.fab1.backend.service.RoleCatalog;
+import com.fab1.backend.service.SchemaMigrator;
+import com.fab1.backend.service.UserCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * In-memory totals against stubbed database counts: the reconcile takes the database
+ * figures and keeps the changes this node made while the counts were running.
+ */
+class UserCounterTest {
+
+    private static final Role USER = new Role(1L, "USER", null);
+    private static final Role ADMIN = new Role(2L, "ADMIN", null);
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RoleCatalog roleCatalog = mock(RoleCatalog.class);
+    private final SchemaMigrator schemaMigrator = mock(SchemaMigrator.class);
+
+    private UserCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        when(schemaMigrator.migrated()).thenReturn(Mono.empty());
+        when(roleCatalog.findById(anyLong())).thenAnswer(invocation -> Optional.ofNullable(
+                Map.of(1L, USER, 2L, ADMIN).get(invocation.<Long>getArgument(0))));
+        counter = new UserCounter(userRepository, roleCatalog, schemaMigrator, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void reconcileTakesTheDatabaseCounts() {
+        stubCounts(8, 2, Map.of(1L, 10L, 2L, 1L));
+
+        UserCounts counts = counter.counts().block();
+
+        assertThat(counts.getTotal()).isEqualTo(10);
+        assertThat(counts.getEnabled()).isEqualTo(8);
+        assertThat(counts.getDisabled()).isEqualTo(2);
+        assertThat(counts.getByRole()).containsExactlyInAnyOrderEntriesOf(Map.of("USER", 10L, "ADMIN", 1L));
+    }
+
+    @Test
+    void changesBetweenReconcilesAdjustTheTotals() {
+        stubCounts(8, 2, Map.of(1L, 10L, 2L, 1L));
+        counter.counts().block();
+
+        counter.created(user(true, ADMIN));
+        counter.deleted(user(false, USER));
+        counter.enabledChanged(user(true, USER), false);
+        counter.enabledChanged(user(true, USER), true);
+        counter.rolesChanged(user(true, USER), Set.of(USER, ADMIN));
+
+        UserCounts counts = counter.counts().block();
+        assertThat(counts.getTotal()).isEqualTo(10);
+        assertThat(counts.getEnabled()).isEqualTo(8);
+        assertThat(counts.getDisabled()).isEqualTo(2);
+        assertThat(counts.getByRole()).containsExactlyInAnyOrderEntriesOf(Map.of("USER", 9L, "ADMIN", 3L));
+    }
+
+    @Test
+    void reconcileCorrectsDrift() {
+        stubCounts(8, 2, Map.of(1L, 10L));
+        counter.counts().block();
+        // Made by another node: this one never heard of them
+        stubCounts(5, 1, Map.of(1L, 6L, 2L, 2L));
+
+        UserCounts counts = counter.reconcile().block();
+
+        assertThat(counts.getTotal()).isEqualTo(6);
+        assertThat(counts.getEnabled()).isEqualTo(5);
+        assertThat(counts.getByRole()).containsExactlyInAnyOrderEntriesOf(Map.of("USER", 6L, "ADMIN", 2L));
+    }
+
+    @Test
+    void changesMadeWhileCountingAreCarriedOver() {
+        stubCounts(8, 2, Map.of(1L, 10L, 2L, 1L));
+        counter.counts().block();
+
+        // The database counts were taken before these four changes committed
+        when(userRepository.countByEnabled()).thenReturn(Mono.fromSupplier(() -> {
+            counter.created(user(true, ADMIN));
+            counter.deleted(user(true, USER));
+            counter.enabledChanged(user(true, USER), false);
+            counter.rolesChanged(user(false, USER), Set.of(ADMIN));
+            return Map.of(true, 8L, false, 2L);
+        }));
+        when(userRepository.countByRoleId()).thenReturn(Mono.just(Map.of(1L, 10L, 2L, 1L)));
+
+        UserCounts counts = counter.reconcile().block();
+
+        assertThat(counts.getTotal()).isEqualTo(10);
+        assertThat(counts.getEnabled()).isEqualTo(7);
+        assertThat(counts.getDisabled()).isEqualTo(3);
+        assertThat(counts.getByRole()).containsExactlyInAnyOrderEntriesOf(Map.of("USER", 8L, "ADMIN", 3L));
+    }
+
+    @Test
+    void failedFirstCountIsRetriedByTheNextReader() {
+        when(userRepository.countByEnabled()).thenReturn(Mono.error(new IllegalStateException("base indisponible")));
+        when(userRepository.countByRoleId()).thenReturn(Mono.just(Map.of()));
+        assertThat(counter.counts().onErrorResume(error -> Mono.empty()).block()).isNull();
+
+        stubCounts(3, 0, Map.of(1L, 3L));
+
+        assertThat(counter.counts().block().getTotal()).isEqualTo(3);
+    }
+
+    private void stubCounts(long enabled, long disabled, Map<Long, Long> byRoleId) {
+        when(userRepository.countByEnabled()).thenReturn(Mono.just(Map.of(true, enabled, false, disabled)));
+        when(userRepository.countByRoleId()).thenReturn(Mono.just(byRoleId));
+    }
+
+    private static User user(boolean enabled, Role... roles) {
+        return User.builder()
+                .username("compteur")
+                .enabled(enabled)
+                .roles(Set.of(roles))
+                .build();
+    }
+}
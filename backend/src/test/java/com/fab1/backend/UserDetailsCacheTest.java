@@ -0,0 +1,111 @@
+package com.fab1.backend;
+
+import com.fab1.backend.model.User;
+import com.fab1.backend.repository.UserRepository;
+import com.fab1.backend.service.AccountStatusService;
+import com.fab1.backend.service.CustomUserDetailsService;
+import com.fab1.backend.service.RoleCatalog;
+import com.fab1.backend.service.UserCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The user cache of CustomUserDetailsService against a stubbed repository: shared
+ * misses, eviction on writes, and the auth.user.load timer.
+ */
+class UserDetailsCacheTest {
+
+    private static final User ALICE = User.builder().id(1L).username("alice").password("hash").build();
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CustomUserDetailsService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new CustomUserDetailsService(userRepository, mock(AccountStatusService.class),
+                mock(RoleCatalog.class), mock(UserCounter.class), meterRegistry, 1_000, 60_000);
+    }
+
+    @Test
+    void concurrentMissesShareOneQuery() {
+        Sinks.One<User> row = Sinks.one();
+        when(userRepository.findByUsernameWithRoles("alice")).thenReturn(row.asMono());
+
+        // All started before the query answers; the cache key ignores case like the collation
+        List<Mono<UserDetails>> lookups = IntStream.range(0, 8)
+                .mapToObj(i -> service.findByUsername(i % 2 == 0 ? "alice" : "Alice").cache())
+                .toList();
+        lookups.forEach(Mono::subscribe);
+        row.tryEmitValue(ALICE);
+
+        assertThat(lookups).allSatisfy(lookup -> assertThat(lookup.block()).isEqualTo(ALICE));
+        verify(userRepository, times(1)).findByUsernameWithRoles("alice");
+    }
+
+    @Test
+    void deleteUserEvictsTheEntry() {
+        when(userRepository.findByUsernameWithRoles("alice")).thenReturn(Mono.just(ALICE));
+        when(userRepository.deleteWithRoles(1L)).thenReturn(Mono.empty());
+        service.findByUsername("alice").block();
+
+        service.deleteUser("alice").block();
+        when(userRepository.findByUsernameWithRoles("alice")).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.findByUsername("alice"))
+                .expectError(UsernameNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void setUserEnabledEvictsTheEntry() {
+        when(userRepository.findByUsernameWithRoles("alice")).thenReturn(Mono.just(ALICE));
+        when(userRepository.findByUsername("alice")).thenReturn(Mono.just(ALICE));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        assertThat(service.findByUsername("alice").block().isEnabled()).isTrue();
+
+        service.setUserEnabled("alice", false).block();
+        when(userRepository.findByUsernameWithRoles("alice")).thenReturn(Mono.just(ALICE.withEnabled(false)));
+
+        assertThat(service.findByUsername("alice").block().isEnabled()).isFalse();
+        verify(userRepository, times(2)).findByUsernameWithRoles("alice");
+    }
+
+    @Test
+    void loadTimerIsTaggedWithTheResult() {
+        when(userRepository.findByUsernameWithRoles("alice")).thenReturn(Mono.just(ALICE));
+        when(userRepository.findByUsernameWithRoles("bob")).thenReturn(Mono.empty());
+
+        service.findByUsername("alice").block();
+        // Served from the cache: not a load
+        service.findByUsername("alice").block();
+        StepVerifier.create(service.findByUsername("bob"))
+                .expectError(UsernameNotFoundException.class)
+                .verify();
+
+        assertThat(loads("found")).isEqualTo(1);
+        assertThat(loads("not_found")).isEqualTo(1);
+    }
+
+    private long loads(String result) {
+        return meterRegistry.get("auth.user.load").tag("result", result).timer().count();
+    }
+}
@@ -0,0 +1,31 @@
+package com.fab1.backend;
+
+import com.fab1.backend.dto.UserImportRow;
+import com.fab1.backend.service.UserImportService;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+class UserImportCsvTest {
+
+    @Test
+    void columnsFollowTheHeaderAndQuotesAreHonoured() {
+        Flux<String> lines = Flux.just(
+                "role,username,passwordHash,enabled",
+                "ADMIN,alice,$2a$10$abcdefghijklmnopqrstuu1234567890ABCDEFGHIJKLMNOPQRSTU,false",
+                "",
+                ",\"bob, \"\"the builder\"\"\",,");
+
+        StepVerifier.create(UserImportService.parseCsv(lines))
+                .expectNext(new UserImportRow("alice", null,
+                        "$2a$10$abcdefghijklmnopqrstuu1234567890ABCDEFGHIJKLMNOPQRSTU", "ADMIN", false))
+                .expectNext(new UserImportRow("bob, \"the builder\"", null, null, null, null))
+                .verifyComplete();
+    }
+
+    @Test
+    void emptyInputGivesNoRows() {
+        StepVerifier.create(UserImportService.parseCsv(Flux.empty()))
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,40 @@
+package com.fab1.backend;
+
+import com.fab1.backend.service.VerifiedTokenCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The cache as Spring builds it: the property-driven constructor, not the private one
+ */
+@SpringJUnitConfig
+@TestPropertySource(properties = "jwt.cache.enabled=true")
+class VerifiedTokenCacheTest {
+
+    @Configuration
+    @Import(VerifiedTokenCache.class)
+    static class Config {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Test
+    void enabledByProperty() {
+        assertThat(verifiedTokenCache.isEnabled()).isTrue();
+    }
+}
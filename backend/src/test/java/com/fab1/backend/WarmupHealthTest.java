@@ -0,0 +1,104 @@
+package com.fab1.backend;
+
+import com.fab1.backend.config.WarmupHealthIndicator;
+import com.fab1.backend.config.WarmupProperties;
+import com.fab1.backend.model.User;
+import com.fab1.backend.repository.UserRepository;
+import com.fab1.backend.service.JwtService;
+import com.fab1.backend.service.PasswordHashingService;
+import com.fab1.backend.service.RevokedTokenRegistry;
+import com.fab1.backend.service.RoleCatalog;
+import com.fab1.backend.service.SchemaMigrator;
+import com.fab1.backend.service.SigningKeyService;
+import com.fab1.backend.service.StartupWarmup;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The "warmup" readiness component as StartupWarmup's attempts fail and succeed,
+ * with stubbed dependencies
+ */
+class WarmupHealthTest {
+
+    private final SchemaMigrator schemaMigrator = mock(SchemaMigrator.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final SigningKeyService signingKeyService = mock(SigningKeyService.class);
+    private final RoleCatalog roleCatalog = mock(RoleCatalog.class);
+    private final RevokedTokenRegistry revokedTokenRegistry = mock(RevokedTokenRegistry.class);
+    private final JwtService jwtService = mock(JwtService.class);
+    private final PasswordHashingService passwordHashingService = mock(PasswordHashingService.class);
+
+    // The database, as the signing key load sees it on each attempt
+    private final AtomicBoolean databaseUp = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        when(schemaMigrator.migrated()).thenReturn(Mono.just(0));
+        when(signingKeyService.loaded()).thenReturn(Mono.defer(() -> databaseUp.get()
+                ? Mono.just(1)
+                : Mono.error(new IllegalStateException("connexion refusée"))));
+        when(roleCatalog.refresh()).thenReturn(Mono.just(3));
+        when(revokedTokenRegistry.refresh()).thenReturn(Mono.just(0));
+        when(userRepository.findByUsername(anyString())).thenReturn(Mono.empty());
+        when(userRepository.findByUsernameWithRoles(anyString())).thenReturn(Mono.empty());
+        when(jwtService.generateToken(any(User.class))).thenReturn(Mono.just("token"));
+        when(jwtService.verify("token")).thenReturn(Mono.empty());
+        when(passwordHashingService.encode(anyString())).thenReturn(Mono.just("hash"));
+    }
+
+    @Test
+    void outOfServiceWhileAttemptsFailThenUpAfterARetry() {
+        StartupWarmup warmup = warmup(true);
+        WarmupHealthIndicator indicator = new WarmupHealthIndicator(warmup);
+
+        warmup.start();
+        Health failing = indicator.health().block();
+        assertThat(failing.getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+        assertThat(failing.getDetails()).containsEntry("lastError", "connexion refusée");
+
+        databaseUp.set(true);
+
+        // Next attempt after the first backoff (about a second)
+        Health recovered = Mono.defer(indicator::health)
+                .filter(health -> Status.UP.equals(health.getStatus()))
+                .repeatWhenEmpty(attempts -> attempts.delayElements(Duration.ofMillis(50)))
+                .block(Duration.ofSeconds(10));
+        assertThat(recovered.getDetails()).containsKeys("connections", "tookMs").doesNotContainKey("lastError");
+    }
+
+    @Test
+    void outOfServiceBeforeTheFirstAttempt() {
+        Health health = new WarmupHealthIndicator(warmup(true)).health().block();
+
+        assertThat(health.getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+        assertThat(health.getDetails()).doesNotContainKey("lastError");
+    }
+
+    @Test
+    void disabledWarmupIsUpImmediately() {
+        StartupWarmup warmup = warmup(false);
+
+        warmup.start();
+
+        assertThat(new WarmupHealthIndicator(warmup).health().block().getStatus()).isEqualTo(Status.UP);
+    }
+
+    private StartupWarmup warmup(boolean enabled) {
+        return new StartupWarmup(new WarmupProperties(enabled, Duration.ofSeconds(5), "warmup-probe"),
+                mock(ConnectionFactory.class), schemaMigrator, userRepository, signingKeyService, roleCatalog,
+                revokedTokenRegistry, jwtService, passwordHashingService);
+    }
+}
@@ -0,0 +1,126 @@
+package com.fab1.backend.service;
+
+import com.fab1.backend.config.MigrationProperties;
+import io.r2dbc.h2.CloseableConnectionFactory;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Same package: checksum() and splitStatements() are package-private.
+ */
+class SchemaMigratorTest {
+
+    // Computed by Flyway 11.7.2 (ChecksumCalculator) on the shipped scripts
+    private static final Map<String, Integer> FLYWAY_CHECKSUMS = Map.of(
+            "V1__init.sql", 1636495124,
+            "V2__refresh_tokens.sql", -917357231,
+            "V3__revoked_tokens.sql", -1697859283,
+            "V4__jwt_signing_keys.sql", -1065104344);
+
+    @Test
+    void checksumsMatchFlyway() throws IOException {
+        for (Map.Entry<String, Integer> script : FLYWAY_CHECKSUMS.entrySet()) {
+            assertThat(SchemaMigrator.checksum(lines("db/migration/" + script.getKey())))
+                    .as(script.getKey())
+                    .isEqualTo(script.getValue());
+        }
+    }
+
+    @Test
+    void checksumIgnoresLineEndings() {
+        assertThat(SchemaMigrator.checksum(List.of("CREATE TABLE t (id INT);", "")))
+                .isEqualTo(SchemaMigrator.checksum("CREATE TABLE t (id INT);\r\n".lines().toList()));
+    }
+
+    @Test
+    void splitsTheShippedScripts() throws IOException {
+        List<String> statements = SchemaMigrator.splitStatements(lines("db/migration/V2__refresh_tokens.sql"));
+
+        assertThat(statements).hasSize(3);
+        assertThat(statements.get(0)).startsWith("CREATE TABLE refresh_tokens").endsWith(")");
+        assertThat(statements.get(1)).isEqualTo("CREATE INDEX idx_refresh_tokens_family ON refresh_tokens (family_id)");
+
+        // Comment lines are dropped, statements kept
+        List<String> signingKeys = SchemaMigrator.splitStatements(lines("db/migration/V4__jwt_signing_keys.sql"));
+        assertThat(signingKeys).hasSize(2);
+        assertThat(signingKeys.get(0)).startsWith("CREATE TABLE jwt_signing_keys").endsWith(")");
+        assertThat(signingKeys.get(1))
+                .isEqualTo("CREATE UNIQUE INDEX idx_jwt_signing_keys_generation ON jwt_signing_keys (generation)");
+    }
+
+    @Test
+    void splitIgnoresSeparatorsInStringsAndComments() {
+        List<String> statements = SchemaMigrator.splitStatements(List.of(
+                "INSERT INTO roles (name) VALUES ('A;B'); -- trailing; comment",
+                "INSERT INTO roles (name) VALUES ('it''s');",
+                "",
+                "-- only a comment;"));
+
+        assertThat(statements).containsExactly(
+                "INSERT INTO roles (name) VALUES ('A;B')",
+                "INSERT INTO roles (name) VALUES ('it''s')");
+    }
+
+    @Test
+    void failedScriptIsRecordedAndNotRetried() throws InterruptedException {
+        CloseableConnectionFactory connectionFactory = H2ConnectionFactory.inMemory("schema-migrator-failure");
+        SchemaMigrator migrator = new SchemaMigrator(
+                new MigrationProperties(true, "classpath*:db/failing/V*__*.sql", Duration.ofSeconds(5), "test"),
+                connectionFactory,
+                new PathMatchingResourcePatternResolver());
+
+        migrator.start();
+        Mono.fromSupplier(migrator::getStatus)
+                .filter(status -> status.lastError() != null)
+                .repeatWhenEmpty(attempts -> attempts.delayElements(Duration.ofMillis(50)))
+                .block(Duration.ofSeconds(10));
+        // Past the first retry backoff (1 s)
+        Thread.sleep(2_000);
+
+        assertThat(migrator.getStatus().done()).isFalse();
+        assertThat(migrator.getStatus().lastError()).startsWith("Migration V2__broken.sql en échec");
+        assertThat(query(connectionFactory, "SELECT version, success FROM flyway_schema_history ORDER BY installed_rank"))
+                .containsExactly("1:true", "2:false");
+        // The statement before the failing one ran once: the script was not started again
+        assertThat(query(connectionFactory, "SELECT id FROM widgets")).containsExactly("1");
+    }
+
+    /**
+     * One "col1:col2..." string per row
+     */
+    private static List<String> query(ConnectionFactory connectionFactory, String sql) {
+        return Mono.usingWhen(
+                        connectionFactory.create(),
+                        connection -> Flux.from(connection.createStatement(sql).execute())
+                                .flatMap(result -> result.map((row, metadata) -> IntStream
+                                        .range(0, metadata.getColumnMetadatas().size())
+                                        .mapToObj(i -> String.valueOf(row.get(i)))
+                                        .collect(Collectors.joining(":"))))
+                                .collectList(),
+                        Connection::close)
+                .block(Duration.ofSeconds(5));
+    }
+
+    private static List<String> lines(String path) throws IOException {
+        try (InputStream in = new ClassPathResource(path).getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+    }
+}
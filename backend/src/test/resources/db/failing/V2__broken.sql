@@ -0,0 +1,3 @@
+-- The second statement fails once the first has been applied
+INSERT INTO widgets (id) VALUES (1);
+INSERT INTO missing_table (id) VALUES (2);
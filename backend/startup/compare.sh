@@ -0,0 +1,108 @@
+#!/usr/bin/env bash
+# Startup time and memory of the three images built by the Dockerfile: plain JVM,
+# JVM + Spring AOT + CDS archive, and native. Each variant is started RUNS times
+# against the same throwaway MariaDB container (already migrated and seeded by an
+# unmeasured first start), one at a time, and for each start we record:
+#   ready_ms   docker run -> /actuator/health/readiness UP (what the autoscaler waits for)
+#   started_s  "Started BackendApplication in ..." as logged by Spring
+#   rss_mib    resident set size of the process once ready
+#
+# Usage (from backend/): startup/compare.sh [runs]     default: 5
+# SKIP_BUILD=1 reuses the backend:jvm, backend:cds and backend:native images.
+# Linux only: RSS is read from /proc on the Docker host.
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+runs=${1:-5}
+variants=(jvm cds native)
+network=backend-startup
+db=backend-startup-db
+app=backend-startup-app
+port=18090
+timeout_s=120
+
+out=target/startup
+csv="$out/startup.csv"
+mkdir -p "$out"
+echo "variant,run,ready_ms,started_s,rss_mib" > "$csv"
+
+if [ -z "${SKIP_BUILD:-}" ]; then
+    for v in "${variants[@]}"; do
+        echo "== build $v"
+        docker build -q --target "$v" -t "backend:$v" . > /dev/null
+    done
+fi
+
+cleanup() {
+    docker rm -f "$app" "$db" > /dev/null 2>&1 || true
+    docker network rm "$network" > /dev/null 2>&1 || true
+}
+trap cleanup EXIT
+cleanup
+
+docker network create "$network" > /dev/null
+docker run -d --name "$db" --network "$network" \
+    -e MARIADB_ROOT_PASSWORD=root -e MARIADB_DATABASE=backend mariadb:11 > /dev/null
+until docker exec "$db" healthcheck.sh --connect --innodb_initialized > /dev/null 2>&1; do
+    sleep 1
+done
+
+# Starts one variant and waits until it is ready; prints "ready_ms started_s rss_mib"
+start() {
+    local image=$1 begin now pid rss started
+    begin=$(date +%s%N)
+    docker run -d --name "$app" --network "$network" -p "$port:8090" \
+        -e SKYSQL_DB_URL="r2dbc:mariadb://$db:3306/backend" \
+        -e SKYSQL_DB_USER=root -e SKYSQL_DB_PASSWORD=root \
+        -e JWT_SECRET=startup-comparison \
+        "$image" > /dev/null
+    until curl -fs "http://localhost:$port/actuator/health/readiness" > /dev/null; do
+        now=$(date +%s%N)
+        if [ $(( (now - begin) / 1000000000 )) -ge "$timeout_s" ]; then
+            echo "$image pas prêt après ${timeout_s}s" >&2
+            docker logs --tail 50 "$app" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    now=$(date +%s%N)
+
+    pid=$(docker inspect -f '{{.State.Pid}}' "$app")
+    rss=$(awk '/^VmRSS:/ { printf "%.1f", $2 / 1024 }' "/proc/$pid/status")
+    started=$(docker logs "$app" 2>&1 | sed -n 's/.*Started BackendApplication in \([0-9.]*\) seconds.*/\1/p' | head -1)
+    docker rm -f "$app" > /dev/null
+
+    echo "$(( (now - begin) / 1000000 )) ${started:-?} $rss"
+}
+
+echo "== migration + seed"
+start backend:jvm > /dev/null
+
+for v in "${variants[@]}"; do
+    for run in $(seq 1 "$runs"); do
+        read -r ready started rss < <(start "backend:$v")
+        echo "$v #$run: prêt en ${ready} ms (Spring ${started} s), RSS ${rss} MiB"
+        echo "$v,$run,$ready,$started,$rss" >> "$csv"
+    done
+done
+
+# Medians per variant
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : (v[NR / 2] + v[NR / 2 + 1]) / 2 }'
+}
+table="$out/startup.dat"
+{
+    echo "variant ready_ms started_s rss_mib"
+    for v in "${variants[@]}"; do
+        row="$v"
+        for col in 3 4 5; do
+            row="$row $(awk -F, -v v="$v" -v c="$col" '$1 == v { print $c }' "$csv" | median)"
+        done
+        echo "$row"
+    done
+} > "$table"
+
+echo
+echo "Médianes sur $runs démarrages:"
+column -t "$table" 2>/dev/null || cat "$table"
+echo "Détail: $csv"
@@ -4,6 +4,7 @@ import axios from "axios";
 export const useAuthStore = defineStore("auth", {
     state: () => ({
         token: localStorage.getItem("token") || null,
+        refreshToken: localStorage.getItem("refreshToken") || null,
         username: localStorage.getItem("username") || null,
         user: null,
         loading: false,
@@ -21,6 +22,50 @@ export const useAuthStore = defineStore("auth", {
             }
         },
 
+        setSession(data) {
+            this.token = data.token;
+            this.refreshToken = data.refreshToken;
+            this.username = data.username;
+
+            localStorage.setItem("token", this.token);
+            localStorage.setItem("refreshToken", this.refreshToken);
+            localStorage.setItem("username", this.username);
+
+            axios.defaults.headers.common["Authorization"] = `Bearer ${this.token}`;
+        },
+
+        clearSession() {
+            this.token = null;
+            this.refreshToken = null;
+            this.username = null;
+            this.user = null;
+            this.error = null;
+
+            localStorage.removeItem("token");
+            localStorage.removeItem("refreshToken");
+            localStorage.removeItem("username");
+
+            delete axios.defaults.headers.common["Authorization"];
+        },
+
+        async refresh() {
+            if (!this.refreshToken) {
+                return false;
+            }
+
+            try {
+                const response = await axios.post("/api/auth/refresh", {
+                    refreshToken: this.refreshToken,
+                });
+                this.setSession(response.data);
+                return true;
+            } catch (error) {
+                console.error("Erreur lors du rafraîchissement de la session:", error);
+                this.clearSession();
+                return false;
+            }
+        },
+
         async login(credentials) {
             this.loading = true;
             this.error = null;
@@ -29,14 +74,7 @@ export const useAuthStore = defineStore("auth", {
                 const response = await axios.post("/api/auth/login", credentials);
                 
                 if (response.data.success) {
-                    this.token = response.data.token;
-                    this.username = response.data.username;
-                    
-                    localStorage.setItem("token", this.token);
-                    localStorage.setItem("username", this.username);
-                    
-                    axios.defaults.headers.common["Authorization"] = `Bearer ${this.token}`;
-                    
+                    this.setSession(response.data);
                     return { success: true };
                 } else {
                     this.error = response.data.message;
@@ -59,14 +97,7 @@ export const useAuthStore = defineStore("auth", {
                 const response = await axios.post("/api/auth/register", credentials);
                 
                 if (response.data.success) {
-                    this.token = response.data.token;
-                    this.username = response.data.username;
-                    
-                    localStorage.setItem("token", this.token);
-                    localStorage.setItem("username", this.username);
-                    
-                    axios.defaults.headers.common["Authorization"] = `Bearer ${this.token}`;
-                    
+                    this.setSession(response.data);
                     return { success: true };
                 } else {
                     this.error = response.data.message;
@@ -85,20 +116,13 @@ export const useAuthStore = defineStore("auth", {
             this.loading = true;
             
             try {
-                await axios.post("/api/auth/logout");
+                await axios.post("/api/auth/logout", {
+                    refreshToken: this.refreshToken,
+                });
             } catch (error) {
                 console.error("Erreur lors de la déconnexion:", error);
             } finally {
-                this.token = null;
-                this.username = null;
-                this.user = null;
-                this.error = null;
-                
-                localStorage.removeItem("token");
-                localStorage.removeItem("username");
-                
-                delete axios.defaults.headers.common["Authorization"];
-                
+                this.clearSession();
                 this.loading = false;
             }
         },
@@ -110,16 +134,7 @@ export const useAuthStore = defineStore("auth", {
                 const response = await axios.delete("/api/auth/delete-account");
                 
                 if (response.data.success) {
-                    this.token = null;
-                    this.username = null;
-                    this.user = null;
-                    this.error = null;
-                    
-                    localStorage.removeItem("token");
-                    localStorage.removeItem("username");
-                    
-                    delete axios.defaults.headers.common["Authorization"];
-                    
+                    this.clearSession();
                     return { success: true };
                 } else {
                     this.error = response.data.message;
@@ -134,12 +149,17 @@ export const useAuthStore = defineStore("auth", {
             }
         },
 
-        async fetchUserInfo() {
+        async fetchUserInfo(retry = true) {
             try {
                 const response = await axios.get("/api/auth/me");
                 this.user = response.data;
                 return response.data;
             } catch (error) {
+                // Access token expired: get a new one and try once more
+                if (error.response?.status === 401 && retry && (await this.refresh())) {
+                    return this.fetchUserInfo(false);
+                }
+
                 console.error("Erreur lors de la récupération des informations utilisateur:", error);
 
                 if (error.response?.status === 401) {